@@ -0,0 +1,170 @@
+package othello;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * BoardBenchmark
+ *
+ * The board operations on the hot paths of the search, over the opening, midgame and endgame corpus.
+ * Every operation works on the next position of the corpus, the block benchmarks on a block of BLOCK positions
+ * (the corpus repeated), reported per position. The fork runs with the Vector API for BatchEvaluator.
+ * Run with -prof gc for the allocation rate.
+ **/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class BoardBenchmark {
+    private static final int BLOCK = 1024;
+
+    @Param({"opening", "midgame", "endgame"})
+    public String phase;
+
+    private Board[] boards;
+    private BitBoard[] bitBoards;
+    private int[] colors;
+    private int[] moves;
+    private PatternEvaluator patternEvaluator;
+    private int index;
+    private final long[] blockBlack = new long[BLOCK];
+    private final long[] blockWhite = new long[BLOCK];
+    private final int[] blockScores = new int[BLOCK];
+
+    @Setup
+    public void setup() throws IOException {
+        List<BitBoard> corpus = Positions.corpus(this.phase);
+        this.boards = new Board[corpus.size()];
+        this.bitBoards = new BitBoard[corpus.size()];
+        this.colors = new int[corpus.size()];
+        this.moves = new int[corpus.size()];
+        for (int i = 0; i < corpus.size(); i++) {
+            BitBoard position = corpus.get(i);
+            this.bitBoards[i] = position;
+            this.boards[i] = new Board(new BitBoard(position));
+            this.colors[i] = -position.getLastPlayer();
+            this.moves[i] = Long.numberOfTrailingZeros(position.legalMoves(this.colors[i]));
+        }
+        for (int i = 0; i < BLOCK; i++) {
+            this.blockBlack[i] = this.bitBoards[i % corpus.size()].getBlack();
+            this.blockWhite[i] = this.bitBoards[i % corpus.size()].getWhite();
+        }
+
+        Path weights = Files.createTempFile("patterns", ".bin");
+        weights.toFile().deleteOnExit();
+        PatternWeights.write(weights, PatternWeights.seed(PatternWeights.DEFAULT_STAGES));
+        this.patternEvaluator = new PatternEvaluator(PatternWeights.load(weights));
+    }
+
+    private int next() {
+        this.index = (this.index + 1) % this.boards.length;
+        return this.index;
+    }
+
+    // All 64 squares of the position for the side to move
+    @Benchmark
+    public int isValidMove() {
+        int i = next();
+        Board board = this.boards[i];
+        int valid = 0;
+        for (int row = 0; row < 8; row++)
+            for (int col = 0; col < 8; col++)
+                if (board.isValidMove(row, col, this.colors[i]))
+                    valid++;
+        return valid;
+    }
+
+    // Both colors, from discs alone, as the legal moves of a Board are cached after the first call
+    @Benchmark
+    public void canPlay(Blackhole blackhole) {
+        BitBoard board = this.bitBoards[next()];
+        blackhole.consume(BitBoard.moves(board.getBlack(), board.getWhite()) != 0);
+        blackhole.consume(BitBoard.moves(board.getWhite(), board.getBlack()) != 0);
+    }
+
+    @Benchmark
+    public List<BitBoard> getChildren() {
+        int i = next();
+        return this.bitBoards[i].getChildren(this.colors[i]);
+    }
+
+    // Copies the board and plays its first legal move, flipping the captured discs
+    @Benchmark
+    public Board placeDisk() {
+        int i = next();
+        Board board = new Board(this.boards[i]);
+        board.placeDisk(BitBoard.row(this.moves[i]), BitBoard.col(this.moves[i]), this.colors[i]);
+        return board;
+    }
+
+    // The move making of the search, without allocation
+    @Benchmark
+    public long makeUndoMove() {
+        int i = next();
+        BitBoard board = this.bitBoards[i];
+        long flipped = board.makeMove(this.moves[i], this.colors[i]);
+        board.undoMove();
+        return flipped;
+    }
+
+    // A search leaf: play a move, evaluate, take it back
+    @Benchmark
+    public int evaluate() {
+        int i = next();
+        BitBoard board = this.bitBoards[i];
+        board.makeMove(this.moves[i], this.colors[i]);
+        int score = board.evaluate();
+        board.undoMove();
+        return score;
+    }
+
+    // Offline scoring: every position of the block from scratch, one at a time
+    @Benchmark
+    @OperationsPerInvocation(BLOCK)
+    public int[] evaluateBlock() {
+        for (int i = 0; i < BLOCK; i++)
+            this.blockScores[i] = BitBoard.evaluate(this.blockBlack[i], this.blockWhite[i]);
+        return this.blockScores;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BLOCK)
+    public int[] evaluateBlockBatch() {
+        BatchEvaluator.evaluate(this.blockBlack, this.blockWhite, BLOCK, this.blockScores);
+        return this.blockScores;
+    }
+
+    @Benchmark
+    public int evaluatePatterns() {
+        int i = next();
+        BitBoard board = this.bitBoards[i];
+        PatternEvaluator evaluator = this.patternEvaluator;
+        evaluator.setPosition(board);
+
+        long flipped = board.makeMove(this.moves[i], this.colors[i]);
+        evaluator.makeMove(this.moves[i], flipped, this.colors[i]);
+        int score = evaluator.evaluate(board);
+        board.undoMove();
+        evaluator.undoMove(this.moves[i], flipped, this.colors[i]);
+        return score;
+    }
+}
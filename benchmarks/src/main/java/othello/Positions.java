@@ -0,0 +1,60 @@
+package othello;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Positions
+ *
+ * The benchmark corpus: positions of random games, the same in every run.
+ * Opening positions are taken after 6 moves, midgame positions after 24 and endgame positions after 46.
+ **/
+final class Positions {
+    static final int COUNT = 16;
+
+    private Positions() {
+    }
+
+    /**
+     * corpus
+     * @param phase "opening", "midgame" or "endgame"
+     * @return COUNT positions where the side to move (the color after getLastPlayer) has a legal move
+     **/
+    static List<BitBoard> corpus(String phase) {
+        switch (phase) {
+            case "opening":
+                return positions(6, 11);
+            case "midgame":
+                return positions(24, 23);
+            case "endgame":
+                return positions(46, 47);
+            default:
+                throw new IllegalArgumentException("Unknown phase " + phase);
+        }
+    }
+
+    private static List<BitBoard> positions(int plies, long seed) {
+        Random random = new Random(seed);
+        List<BitBoard> positions = new ArrayList<>();
+
+        while (positions.size() < COUNT) {
+            BitBoard board = new BitBoard();
+            int color = Board.B;
+            for (int ply = 0; ply < plies && (board.canPlay(Board.B) || board.canPlay(Board.W)); ply++) {
+                if (!board.canPlay(color)) {
+                    board.setLastPlayer(color);
+                    color = -color;
+                }
+                long moves = board.legalMoves(color);
+                for (int skip = random.nextInt(Long.bitCount(moves)); skip > 0; skip--)
+                    moves &= moves - 1;
+                board.placeDisk(Long.numberOfTrailingZeros(moves), color);
+                color = -color;
+            }
+            if (board.canPlay(color))
+                positions.add(new BitBoard(board.getBlack(), board.getWhite(), -color));
+        }
+        return positions;
+    }
+}
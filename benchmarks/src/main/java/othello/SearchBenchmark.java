@@ -0,0 +1,111 @@
+package othello;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * SearchBenchmark
+ *
+ * Fixed-depth PlayerAB.MiniMax over the opening, midgame and endgame corpus, one position per operation.
+ * The transposition table is cleared before every search, so every search starts cold like the first move of a game.
+ * The endgame solver is off, so endgame positions measure the same search as the rest.
+ * Reports the searched nodes per second next to the searches per second.
+ * search runs the Searcher alone, without the per-move set-up of MiniMax: the steady-state search path,
+ * which allocates nothing. Check with -prof gc, gc.alloc.rate.norm should be about 0 B/op.
+ **/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+    private static final int HASH_MB = 16;
+
+    @Param({"opening", "midgame", "endgame"})
+    public String phase;
+
+    @Param({"6"})
+    public int depth;
+
+    private Board[] boards;
+    private PlayerAB[] players;
+    private TranspositionTable table;
+    private Searcher searcher;
+    private int index;
+
+    /**
+     * Nodes
+     * Counted as operations, so JMH reports them per second.
+     **/
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Nodes {
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            this.nodes = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        List<BitBoard> corpus = Positions.corpus(this.phase);
+        this.boards = new Board[corpus.size()];
+        this.players = new PlayerAB[2];
+        for (int i = 0; i < corpus.size(); i++)
+            this.boards[i] = new Board(corpus.get(i));
+
+        for (int color : new int[] {Board.B, Board.W}) {
+            PlayerAB player = new PlayerAB(this.depth, color, true);
+            player.setHashSize(HASH_MB);
+            player.setEndgameEmpties(0);
+            this.players[color == Board.B ? 0 : 1] = player;
+        }
+
+        this.table = new TranspositionTable(HASH_MB);
+        this.searcher = new Searcher(new PlayerAB(this.depth, Board.B, true), this.table, Evaluator.DEFAULT, 0, false);
+    }
+
+    @Setup(Level.Invocation)
+    public void nextPosition() {
+        this.index = (this.index + 1) % this.boards.length;
+        for (PlayerAB player : this.players)
+            player.clearHash();
+        this.table.clear();
+    }
+
+    @Benchmark
+    public Move miniMax(Nodes nodes) {
+        Board board = this.boards[this.index];
+        PlayerAB player = this.players[board.getLastPlayer() == Board.W ? 0 : 1];
+        Move move = player.MiniMax(board);
+        nodes.nodes += player.getNodes();
+        return move;
+    }
+
+    @Benchmark
+    public int search(Nodes nodes) {
+        BitBoard position = this.boards[this.index].getBitBoard();
+        this.table.newSearch();
+        this.searcher.newSearch();
+        int score = this.searcher.search(position, this.depth, -position.getLastPlayer(), -Searcher.INFINITY, Searcher.INFINITY);
+        nodes.nodes += this.searcher.nodes;
+        return score;
+    }
+}
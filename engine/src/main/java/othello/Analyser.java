@@ -0,0 +1,351 @@
+package othello;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Analyser
+ *
+ * Annotates archives of played games with the engine's evaluation of every move.
+ * The game file is streamed a line at a time, one game per line as a move sequence like "f5d6c3d3c4",
+ * columns a to h and rows 1 to 8, passes left out. Every game is replayed and each position before a move
+ * is searched, giving the engine's best move, the score of the position and the error of the move played:
+ * how much worse the position after it scored, both from the mover's point of view. Scores are in the units of
+ * the evaluation, and in discs once the endgame solver takes over (or the game is over). The two can't be
+ * compared, so the move between the last evaluated position and the first solved one gets no error, "-".
+ * Games are analysed on a pool of workers, each with its own players. At most a bounded number of games
+ * are read ahead of the one being written, so memory stays flat and the output keeps the order of the input.
+ * Positions are cached by hash across games, so shared openings are searched once. With -cachefile the cache
+ * is mapped from a file and kept across runs, so positions analysed before are not searched again;
+ * an entry is only used by an engine that searches no deeper than the one that stored it, a solved entry
+ * by any engine.
+ *
+ * Usage: java othello.Analyser [-engine spec] [-workers n] [-ahead n] [-cache mb] [-cachefile file]
+ *                              [input] [output]
+ * The engine spec is the one of Tournament, "depth=8" by default, without a book (book moves have no score).
+ * The input and output are stdin and stdout by default. The output is tab separated:
+ * game, ply, move played, best move, score, error. An unreadable game gets a line "# game n: message".
+ **/
+public final class Analyser {
+    public static final String DEFAULT_ENGINE = "depth=8";
+    public static final int DEFAULT_CACHE_MB = 64;
+
+    // Cache depth of the positions solved to the end, deeper than any search
+    private static final int SOLVED_DEPTH = 0xFF;
+    // Set in the result of search() when the score is an exact disc difference
+    private static final long SOLVED = 1L << 40;
+
+    private final TranspositionTable cache;
+    private final int depth;
+    private final ThreadLocal<PlayerAB[]> players;
+    private final Queue<PlayerAB> created = new ConcurrentLinkedQueue<>();     // Closed once a run is over
+    private final AtomicLong positions = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+
+    /**
+     * Analyser
+     * @param engine the players that search the positions, cache of the searched positions
+     **/
+    public Analyser(Tournament.Engine engine, TranspositionTable cache) {
+        this.cache = cache;
+        this.depth = Math.min(engine.depth, SOLVED_DEPTH - 1);
+        this.players = ThreadLocal.withInitial(() -> {
+            PlayerAB[] players = {engine.create(Board.B), engine.create(Board.W)};
+            this.created.addAll(List.of(players));
+            return players;
+        });
+    }
+
+    /**
+     * analyse
+     * Replays a game and searches every position before a move.
+     * @param game the moves, like "f5d6c3"
+     * @return the analysis of every move
+     * @throws IllegalArgumentException if the game has an illegal move or can't be read
+     **/
+    public List<MoveAnalysis> analyse(String game) {
+        List<MoveAnalysis> moves = new ArrayList<>();
+        List<Long> results = new ArrayList<>();
+        Board board = new Board();
+
+        for (int i = 0; i < game.length(); i += 2) {
+            String name = game.substring(i, Math.min(i + 2, game.length()));
+            int square = square(name);
+            int color = sideToMove(board);
+            if (color == 0)
+                throw new IllegalArgumentException("move " + name + " after the end of the game");
+            if (square < 0 || !board.isValidMove(BitBoard.row(square), BitBoard.col(square), color))
+                throw new IllegalArgumentException("illegal move " + name + " at ply " + (i / 2 + 1));
+
+            long result = search(board, color);
+            moves.add(new MoveAnalysis(moves.size() + 1, color, square, (int) (result >> 32) & 0xFF));
+            results.add(result);
+            board.placeDisk(BitBoard.row(square), BitBoard.col(square), color);
+        }
+
+        // Each move's error compares the score before it with the score of the position it led to.
+        // A finished game scores its disc difference with the empties to the winner, like the endgame solver
+        // does for the moves before.
+        int color = sideToMove(board);
+        BitBoard end = board.getBitBoard();
+        long last = color == 0 ? SOLVED | EndgameSolver.finalScore(end.getBlack(), end.getWhite()) & 0xFFFFFFFFL
+                : search(board, color);
+        for (int i = 0; i < moves.size(); i++) {
+            MoveAnalysis move = moves.get(i);
+            long before = results.get(i);
+            long after = i + 1 < moves.size() ? results.get(i + 1) : last;
+            move.score = (int) before * move.color;
+            // Evaluation units and discs don't compare
+            if ((before & SOLVED) != (after & SOLVED))
+                move.error = MoveAnalysis.NO_ERROR;
+            // The two scores come from searches a ply apart, so the best move gets no error and no move gains
+            else
+                move.error = move.move == move.best ? 0 : Math.max(0, move.score - (int) after * move.color);
+        }
+        return moves;
+    }
+
+    // The color to move, after a forced pass. 0 once the game is over.
+    private static int sideToMove(Board board) {
+        int color = -board.getLastPlayer();
+        if (board.canPlay(color))
+            return color;
+        if (!board.canPlay(-color))
+            return 0;
+        board.setLastPlayer(color);
+        return -color;
+    }
+
+    /**
+     * search
+     * @param board, color to move
+     * @return the best move in bits 32 to 39, SOLVED if the score is an exact disc difference,
+     *         and the score from black's point of view in the low half
+     **/
+    private long search(Board board, int color) {
+        this.positions.incrementAndGet();
+        long key = board.getBitBoard().getHash();
+        long entry = this.cache.probe(key);
+        if (entry != 0 && TranspositionTable.depth(entry) >= this.depth) {
+            this.cacheHits.incrementAndGet();
+            long solved = TranspositionTable.depth(entry) == SOLVED_DEPTH ? SOLVED : 0;
+            return (long) TranspositionTable.move(entry) << 32 | solved | TranspositionTable.score(entry) & 0xFFFFFFFFL;
+        }
+
+        PlayerAB player = this.players.get()[color == Board.B ? 0 : 1];
+        Move move = player.MiniMax(board);
+        boolean solved = player.getStats().getSource().equals(SearchStats.ENDGAME);
+        int square = move.getRow() * 8 + move.getCol();
+        this.cache.store(key, solved ? SOLVED_DEPTH : this.depth, TranspositionTable.EXACT, move.getValue(), square);
+        return (long) square << 32 | (solved ? SOLVED : 0) | move.getValue() & 0xFFFFFFFFL;
+    }
+
+    public long getPositions() {
+        return this.positions.get();
+    }
+
+    public long getCacheHits() {
+        return this.cacheHits.get();
+    }
+
+    /**
+     * square
+     * @param name like "f5"
+     * @return the square, -1 if the name is not one
+     **/
+    static int square(String name) {
+        if (name.length() != 2)
+            return -1;
+        int col = Character.toLowerCase(name.charAt(0)) - 'a';
+        int row = name.charAt(1) - '1';
+        return row < 0 || row > 7 || col < 0 || col > 7 ? -1 : row * 8 + col;
+    }
+
+    static String squareName(int square) {
+        return "" + (char) ('a' + BitBoard.col(square)) + (char) ('1' + BitBoard.row(square));
+    }
+
+    /**
+     * MoveAnalysis
+     * One move of a game. Scores are from the point of view of the player that moved.
+     **/
+    public static final class MoveAnalysis {
+        // The error of a move whose scores before and after are in different units
+        public static final int NO_ERROR = -1;
+
+        final int ply;
+        final int color;
+        final int move;
+        final int best;
+        int score;
+        int error;
+
+        MoveAnalysis(int ply, int color, int move, int best) {
+            this.ply = ply;
+            this.color = color;
+            this.move = move;
+            this.best = best;
+        }
+
+        public int getPly() {
+            return this.ply;
+        }
+
+        public int getMove() {
+            return this.move;
+        }
+
+        public int getBest() {
+            return this.best;
+        }
+
+        public int getScore() {
+            return this.score;
+        }
+
+        /**
+         * getError
+         * @return how much worse the position after the move scored, NO_ERROR if it can't be compared
+         **/
+        public int getError() {
+            return this.error;
+        }
+    }
+
+    /**
+     * run
+     * Analyses every game of the input and writes the results in the order of the input.
+     * The reader blocks once ahead games wait to be written, so a slow writer holds back the reading.
+     * @param in, out, workers, ahead games read ahead of the one being written
+     * @return the number of games
+     **/
+    public long run(Reader in, Writer out, int workers, int ahead) throws IOException, InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        ExecutorService writerThread = Executors.newSingleThreadExecutor();
+        BlockingQueue<Future<String>> pending = new ArrayBlockingQueue<>(ahead);
+        PrintWriter writer = new PrintWriter(new BufferedWriter(out));
+        Future<Long> written = writerThread.submit(() -> write(pending, writer));
+
+        long games = 0;
+        try (BufferedReader reader = new BufferedReader(in)) {
+            for (String line; (line = reader.readLine()) != null; ) {
+                String game = line.trim();
+                if (game.isEmpty() || game.startsWith("#"))
+                    continue;
+                long number = ++games;
+                enqueue(pending, pool.submit(() -> format(number, game)), written);
+            }
+            enqueue(pending, pool.submit(() -> null), written);   // End of the input
+            return written.get();
+        } catch (ExecutionException e) {
+            throw new IOException("Analysis failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+            writerThread.shutdownNow();
+            writer.flush();
+            closePlayers(pool);
+        }
+    }
+
+    // Closes the players of the workers, once they are done with them
+    private void closePlayers(ExecutorService pool) throws InterruptedException {
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        for (PlayerAB player; (player = this.created.poll()) != null; )
+            player.close();
+    }
+
+    // Waits for room in the queue, unless the writer has failed and will never make any
+    private static void enqueue(BlockingQueue<Future<String>> pending, Future<String> game, Future<Long> written)
+            throws InterruptedException, ExecutionException {
+        while (!pending.offer(game, 100, TimeUnit.MILLISECONDS))
+            if (written.isDone())
+                written.get();
+    }
+
+    private static long write(BlockingQueue<Future<String>> pending, PrintWriter writer) throws Exception {
+        writer.println("game\tply\tmove\tbest\tscore\terror");
+        long games = 0;
+        for (String lines; (lines = pending.take().get()) != null; games++)
+            writer.print(lines);
+        writer.flush();
+        return games;
+    }
+
+    private String format(long number, String game) {
+        StringBuilder lines = new StringBuilder();
+        try {
+            for (MoveAnalysis move : analyse(game)) {
+                lines.append(number).append('\t').append(move.ply).append('\t').append(squareName(move.move))
+                        .append('\t').append(squareName(move.best)).append('\t').append(move.score)
+                        .append('\t').append(move.error == MoveAnalysis.NO_ERROR ? "-" : move.error)
+                        .append(System.lineSeparator());
+            }
+        } catch (IllegalArgumentException e) {
+            lines.setLength(0);
+            lines.append("# game ").append(number).append(": ").append(e.getMessage()).append(System.lineSeparator());
+        }
+        return lines.toString();
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String spec = DEFAULT_ENGINE;
+        int workers = Runtime.getRuntime().availableProcessors();
+        int ahead = 0;
+        int cacheSizeMB = DEFAULT_CACHE_MB;
+        String cacheFile = null;
+        List<String> files = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-engine" -> spec = args[++i];
+                case "-workers" -> workers = Integer.parseInt(args[++i]);
+                case "-ahead" -> ahead = Integer.parseInt(args[++i]);
+                case "-cache" -> cacheSizeMB = Integer.parseInt(args[++i]);
+                case "-cachefile" -> cacheFile = args[++i];
+                default -> files.add(args[i]);
+            }
+        }
+
+        TranspositionTable cache = cacheFile != null
+                ? TranspositionTable.open(Paths.get(cacheFile), cacheSizeMB)
+                : new TranspositionTable(cacheSizeMB);
+        Analyser analyser = new Analyser(new Tournament.Engine(spec), cache);
+        Reader in = files.size() > 0
+                ? Files.newBufferedReader(Paths.get(files.get(0)), StandardCharsets.UTF_8)
+                : new InputStreamReader(System.in, StandardCharsets.UTF_8);
+        Writer out = files.size() > 1
+                ? Files.newBufferedWriter(Paths.get(files.get(1)), StandardCharsets.UTF_8)
+                : new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+
+        long start = System.nanoTime();
+        long games;
+        try (out) {
+            games = analyser.run(in, out, workers, ahead > 0 ? ahead : 4 * workers);
+        } finally {
+            cache.flush();
+        }
+        System.err.printf("%d games, %d positions, %d from the cache, %.1f s%n", games, analyser.getPositions(),
+                analyser.getCacheHits(), (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,92 @@
+package othello;
+
+/**
+ * BatchEvaluator
+ *
+ * Scores many positions at once with the evaluation of BitBoard.evaluate or of a LinearEvaluator, and
+ * extracts their LinearEvaluator features, for offline tools that work on blocks of positions (training
+ * sets, corpora, the games Tuner loads). The search evaluates its leaves one at a time: alpha-beta
+ * cuts most siblings before they are evaluated, so scoring all of them at once costs more than it saves.
+ * The positions are packed in two arrays, the black and the white discs of each, so that a vector loads
+ * a position per lane without shuffling.
+ *
+ * When the JVM has the Vector API (java --add-modules jdk.incubator.vector ...) VectorEvaluator scores
+ * a vector of positions at a time, each lane running the move generation and bit counts of its position.
+ * Otherwise, and for the positions left over after the last full vector, they are scored one at a time.
+ * Stable discs are counted one position at a time either way, and only when their weight isn't 0.
+ * Both give exactly the scores of BitBoard.evaluate and LinearEvaluator.evaluate.
+ *
+ * A pattern weights file (PatternEvaluator) is not batched, a tool scoring with it evaluates one position
+ * at a time with Evaluator.evaluate.
+ **/
+public final class BatchEvaluator {
+    private static final boolean VECTORIZED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private BatchEvaluator() {
+    }
+
+    /**
+     * isVectorized
+     * @return true if the batches are scored with the Vector API
+     **/
+    public static boolean isVectorized() {
+        return VECTORIZED;
+    }
+
+    /**
+     * evaluate
+     * @param black, white the discs of the positions, count number of positions,
+     *        scores of the positions, positive if black is winning
+     **/
+    public static void evaluate(long[] black, long[] white, int count, int[] scores) {
+        // VectorEvaluator is only loaded when the module is there
+        int scored = VECTORIZED
+                ? VectorEvaluator.evaluate(LinearEvaluator.DEFAULT_WEIGHTS, black, white, count, scores) : 0;
+        for (int i = scored; i < count; i++)
+            scores[i] = BitBoard.evaluate(black[i], white[i]);
+    }
+
+    /**
+     * evaluate
+     * @param evaluator whose weights score the positions, black, white the discs of the positions,
+     *        count number of positions, scores of the positions, positive if black is winning
+     **/
+    public static void evaluate(LinearEvaluator evaluator, long[] black, long[] white, int count, int[] scores) {
+        int[] weights = evaluator.getWeights();
+        int scored = VECTORIZED ? VectorEvaluator.evaluate(weights, black, white, count, scores) : 0;
+        int stability = weights[LinearEvaluator.STABILITY];
+        if (stability != 0) {
+            for (int i = 0; i < scored; i++)
+                if (!isOver(black[i], white[i]))
+                    scores[i] += stability * (Stability.count(black[i], white[i]) - Stability.count(white[i], black[i]));
+        }
+        for (int i = scored; i < count; i++)
+            scores[i] = evaluator.evaluate(black[i], white[i]);
+    }
+
+    /**
+     * features
+     * LinearEvaluator.features of many positions, one array per feature.
+     * @param black, white the discs of the positions, count number of positions,
+     *        features filled with the value of every feature, features[feature][position],
+     *        over set for the finished games, their features are not to be used
+     **/
+    public static void features(long[] black, long[] white, int count, int[][] features, boolean[] over) {
+        int done = VECTORIZED ? VectorEvaluator.features(black, white, count, features, over) : 0;
+        for (int i = 0; i < done; i++)
+            if (!over[i])
+                features[LinearEvaluator.STABILITY][i] =
+                        Stability.count(black[i], white[i]) - Stability.count(white[i], black[i]);
+
+        int[] values = new int[LinearEvaluator.FEATURES];
+        for (int i = done; i < count; i++) {
+            over[i] = !LinearEvaluator.features(black[i], white[i], values);
+            for (int feature = 0; feature < LinearEvaluator.FEATURES; feature++)
+                features[feature][i] = values[feature];
+        }
+    }
+
+    private static boolean isOver(long black, long white) {
+        return BitBoard.moves(black, white) == 0 && BitBoard.moves(white, black) == 0;
+    }
+}
@@ -0,0 +1,627 @@
+package othello;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * BitBoard
+ *
+ * A bitboard representation of the game board.
+ * The discs of each color are kept in a 64-bit long, one bit per square (square = row * 8 + col).
+ * Legal moves and flips are computed for all 8 directions at once with Kogge-Stone occluded fills
+ * instead of walking the squares one at a time.
+ * The positional part of the evaluation is kept up to date as discs are placed and flipped,
+ * and the legal moves of both colors are cached until the next move.
+ **/
+public class BitBoard {
+    public static final int PASS = 64;
+    public static final int NO_MOVE = -1;
+
+    // The 8 symmetries of the board: bit 0 mirrors the rows, bit 1 mirrors the columns, bit 2 then transposes.
+    public static final int SYMMETRIES = 8;
+
+    static final long FILE_A = 0x0101010101010101L;
+    static final long FILE_H = 0x8080808080808080L;
+    static final long NOT_A = ~FILE_A;
+    static final long NOT_H = ~FILE_H;
+
+    // Direction shifts and the masks that stop a shifted disc from wrapping around the board.
+    // Shifting left by 1 moves a disc one column to the right, shifting left by 8 one row down.
+    static final int[] SHIFTS = {1, 7, 8, 9};
+    static final long[] LEFT_MASKS = {NOT_A, NOT_H, -1L, NOT_A};
+    static final long[] RIGHT_MASKS = {NOT_H, NOT_A, -1L, NOT_H};
+
+    // Squares weighted by evaluate(), in the same groups as the original int[8][8] version.
+    static final long CORNERS = 0x8100000000000081L;
+    static final long X_SQUARES = 0x4281000000008142L;
+    static final long C_SQUARES = 0x2400810000810024L;
+    static final long EDGES = 0x7E8181818181817EL;
+
+    static final int CORNER_WEIGHT = 50;
+    static final int X_WEIGHT = -20;
+    static final int C_WEIGHT = -20;
+    static final int EDGE_WEIGHT = 3;
+    static final int MOBILITY_WEIGHT = 5;
+
+    // A won game, a side without moves, and a side with more than 3 discs to every 2 of the other
+    static final int WIN_SCORE = 10000;
+    static final int NO_MOVES_SCORE = 1000;
+    static final int MAJORITY_SCORE = 25;
+
+    // Positional weight of every square, the sum of the weights of its groups
+    private static final int[] SQUARE_WEIGHTS = new int[64];
+
+    static {
+        for (int square = 0; square < 64; square++)
+            SQUARE_WEIGHTS[square] = weight(1L << square);
+    }
+
+    // Marks a legal move mask that has not been calculated since the last move
+    private static final long UNKNOWN = -1L;
+
+    private static final int INITIAL_UNDO_DEPTH = 64;
+
+    private long black;
+    private long white;
+    private int blackDiscs;
+    private int whiteDiscs;
+    private int lastPlayer;
+    private int lastMove;
+    private long hash;
+    private int positional;     // Black minus white positional weights
+    private long blackMoves = UNKNOWN;
+    private long whiteMoves = UNKNOWN;
+
+    // Undo stack, one entry per makeMove/makePass: flipped discs, disc counts, last move, last player, hash,
+    // positional sum and cached moves.
+    private long[] undoFlipped;
+    private long[] undoHash;
+    private int[] undoPositional;
+    private long[] undoBlackMoves;
+    private long[] undoWhiteMoves;
+    private int[] undoDiscs;
+    private int[] undoLastMove;
+    private int[] undoLastPlayer;
+    private int undoTop;
+
+    public BitBoard() {
+        this.black = bit(3, 4) | bit(4, 3);
+        this.white = bit(3, 3) | bit(4, 4);
+        this.blackDiscs = 2;
+        this.whiteDiscs = 2;
+        this.lastPlayer = Board.W;
+        this.lastMove = NO_MOVE;
+        this.hash = Zobrist.hash(this.black, this.white);
+        this.positional = weight(this.black) - weight(this.white);
+        allocateUndo(INITIAL_UNDO_DEPTH);
+    }
+
+    /**
+     * BitBoard
+     * A position with the given discs and no undo history.
+     * @param black, white, lastPlayer the color that played last, the other color moves next
+     **/
+    public BitBoard(long black, long white, int lastPlayer) {
+        this.black = black;
+        this.white = white;
+        this.blackDiscs = Long.bitCount(black);
+        this.whiteDiscs = Long.bitCount(white);
+        this.lastPlayer = lastPlayer;
+        this.lastMove = NO_MOVE;
+        this.hash = Zobrist.hash(black, white);
+        this.positional = weight(black) - weight(white);
+        allocateUndo(INITIAL_UNDO_DEPTH);
+    }
+
+    // Copy Constructor
+    // The undo history is not copied, the copy starts with an empty stack.
+    public BitBoard(BitBoard board) {
+        allocateUndo(INITIAL_UNDO_DEPTH);
+        set(board);
+    }
+
+    /**
+     * set
+     * Copies the given position into this board without allocating, so a search can reuse its board.
+     * The undo history is not copied, the board starts with an empty stack.
+     * @param board
+     **/
+    public void set(BitBoard board) {
+        this.black = board.black;
+        this.white = board.white;
+        this.blackDiscs = board.blackDiscs;
+        this.whiteDiscs = board.whiteDiscs;
+        this.lastPlayer = board.lastPlayer;
+        this.lastMove = board.lastMove;
+        this.hash = board.hash;
+        this.positional = board.positional;
+        this.blackMoves = board.blackMoves;
+        this.whiteMoves = board.whiteMoves;
+        this.undoTop = 0;
+    }
+
+    private void allocateUndo(int depth) {
+        this.undoFlipped = new long[depth];
+        this.undoHash = new long[depth];
+        this.undoPositional = new int[depth];
+        this.undoBlackMoves = new long[depth];
+        this.undoWhiteMoves = new long[depth];
+        this.undoDiscs = new int[depth];
+        this.undoLastMove = new int[depth];
+        this.undoLastPlayer = new int[depth];
+    }
+
+
+    /* Move Generation */
+
+    /**
+     * moves
+     * Calculates the legal moves of the player with the given discs.
+     * @param player, opponent
+     * @return bitmask of the empty squares that flip at least one opponent disc
+     **/
+    static long moves(long player, long opponent) {
+        long empty = ~(player | opponent);
+        long moves = 0;
+
+        for (int d = 0; d < 4; d++) {
+            int shift = SHIFTS[d];
+
+            long left = fillLeft(player, opponent & LEFT_MASKS[d], shift) & opponent;
+            moves |= (left << shift) & LEFT_MASKS[d];
+
+            long right = fillRight(player, opponent & RIGHT_MASKS[d], shift) & opponent;
+            moves |= (right >>> shift) & RIGHT_MASKS[d];
+        }
+        return moves & empty;
+    }
+
+    /**
+     * flips
+     * Calculates the opponent discs flipped by placing a disc on the given square.
+     * Move validity to be checked before calling this method.
+     * @param square, player, opponent
+     * @return bitmask of the flipped discs
+     **/
+    static long flips(int square, long player, long opponent) {
+        long move = 1L << square;
+        long flipped = 0;
+
+        for (int d = 0; d < 4; d++) {
+            int shift = SHIFTS[d];
+
+            // Run from the move through the opponent discs and check that a friendly disc closes the line.
+            long left = fillLeft(move, opponent & LEFT_MASKS[d], shift);
+            if (((left << shift) & LEFT_MASKS[d] & player) != 0)
+                flipped |= left & opponent;
+
+            long right = fillRight(move, opponent & RIGHT_MASKS[d], shift);
+            if (((right >>> shift) & RIGHT_MASKS[d] & player) != 0)
+                flipped |= right & opponent;
+        }
+        return flipped;
+    }
+
+    // Kogge-Stone occluded fill of the generator discs through the propagator discs.
+    private static long fillLeft(long gen, long pro, int shift) {
+        gen |= pro & (gen << shift);
+        pro &= pro << shift;
+        gen |= pro & (gen << (shift << 1));
+        pro &= pro << (shift << 1);
+        gen |= pro & (gen << (shift << 2));
+        return gen;
+    }
+
+    private static long fillRight(long gen, long pro, int shift) {
+        gen |= pro & (gen >>> shift);
+        pro &= pro >>> shift;
+        gen |= pro & (gen >>> (shift << 1));
+        pro &= pro >>> (shift << 1);
+        gen |= pro & (gen >>> (shift << 2));
+        return gen;
+    }
+
+
+    /* Move Making */
+
+    /**
+     * Place Disk
+     * Places a disk of the given color on the given square and flips the captured discs.
+     * Move validity to be checked before calling this method.
+     * @param square, color
+     **/
+    public void placeDisk(int square, int color) {
+        apply(square, color);
+    }
+
+    /**
+     * makeMove
+     * Places a disk like placeDisk, but records what changed so that undoMove can take it back.
+     * Move validity to be checked before calling this method.
+     * @param square, color
+     * @return bitmask of the flipped discs
+     **/
+    public long makeMove(int square, int color) {
+        push();
+        return this.undoFlipped[this.undoTop - 1] = apply(square, color);
+    }
+
+    /**
+     * makePass
+     * Records a turn where the given color has no legal move.
+     * @param color
+     **/
+    public void makePass(int color) {
+        push();
+        this.undoFlipped[this.undoTop - 1] = 0;
+        this.lastMove = PASS;
+        this.lastPlayer = color;
+    }
+
+    /**
+     * undoMove
+     * Takes back the last makeMove or makePass.
+     **/
+    public void undoMove() {
+        int top = --this.undoTop;
+
+        if (this.lastMove != PASS) {
+            long move = 1L << this.lastMove;
+            long flipped = this.undoFlipped[top];
+
+            if (this.lastPlayer == Board.B) {
+                this.black &= ~(move | flipped);
+                this.white |= flipped;
+            } else {
+                this.white &= ~(move | flipped);
+                this.black |= flipped;
+            }
+        }
+        this.hash = this.undoHash[top];
+        this.positional = this.undoPositional[top];
+        this.blackMoves = this.undoBlackMoves[top];
+        this.whiteMoves = this.undoWhiteMoves[top];
+        this.blackDiscs = this.undoDiscs[top] >>> 8;
+        this.whiteDiscs = this.undoDiscs[top] & 0xFF;
+        this.lastMove = this.undoLastMove[top];
+        this.lastPlayer = this.undoLastPlayer[top];
+    }
+
+    private void push() {
+        if (this.undoTop == this.undoFlipped.length) {
+            int depth = this.undoTop * 2;
+            this.undoFlipped = Arrays.copyOf(this.undoFlipped, depth);
+            this.undoHash = Arrays.copyOf(this.undoHash, depth);
+            this.undoPositional = Arrays.copyOf(this.undoPositional, depth);
+            this.undoBlackMoves = Arrays.copyOf(this.undoBlackMoves, depth);
+            this.undoWhiteMoves = Arrays.copyOf(this.undoWhiteMoves, depth);
+            this.undoDiscs = Arrays.copyOf(this.undoDiscs, depth);
+            this.undoLastMove = Arrays.copyOf(this.undoLastMove, depth);
+            this.undoLastPlayer = Arrays.copyOf(this.undoLastPlayer, depth);
+        }
+        int top = this.undoTop++;
+        this.undoHash[top] = this.hash;
+        this.undoPositional[top] = this.positional;
+        this.undoBlackMoves[top] = this.blackMoves;
+        this.undoWhiteMoves[top] = this.whiteMoves;
+        this.undoDiscs[top] = this.blackDiscs << 8 | this.whiteDiscs;
+        this.undoLastMove[top] = this.lastMove;
+        this.undoLastPlayer[top] = this.lastPlayer;
+    }
+
+    // Places the disc, flips the captured discs and returns them.
+    // A flipped disc changes sides, so it moves the positional sum by twice its weight.
+    private long apply(int square, int color) {
+        long move = 1L << square;
+        long flipped;
+
+        if (color == Board.B) {
+            flipped = flips(square, this.black, this.white);
+            this.black |= move | flipped;
+            this.white &= ~flipped;
+        } else {
+            flipped = flips(square, this.white, this.black);
+            this.white |= move | flipped;
+            this.black &= ~flipped;
+        }
+
+        int captured = Long.bitCount(flipped);
+        if (color == Board.B) {
+            this.blackDiscs += captured + 1;
+            this.whiteDiscs -= captured;
+            this.hash ^= Zobrist.BLACK[square];
+        } else {
+            this.whiteDiscs += captured + 1;
+            this.blackDiscs -= captured;
+            this.hash ^= Zobrist.WHITE[square];
+        }
+        this.hash = Zobrist.flip(this.hash, flipped);
+        this.positional += color * (SQUARE_WEIGHTS[square] + 2 * weight(flipped));
+        this.blackMoves = UNKNOWN;
+        this.whiteMoves = UNKNOWN;
+        this.lastMove = square;
+        this.lastPlayer = color;
+        return flipped;
+    }
+
+
+    /* Control */
+
+    /**
+     * legalMoves
+     * Calculated once per position and cached until the next move.
+     * @param color
+     * @return bitmask of the legal moves of the given color
+     **/
+    public long legalMoves(int color) {
+        if (color == Board.B) {
+            if (this.blackMoves == UNKNOWN)
+                this.blackMoves = moves(this.black, this.white);
+            return this.blackMoves;
+        }
+        if (this.whiteMoves == UNKNOWN)
+            this.whiteMoves = moves(this.white, this.black);
+        return this.whiteMoves;
+    }
+
+    public boolean isValidMove(int square, int color) {
+        return (legalMoves(color) & (1L << square)) != 0;
+    }
+
+    public boolean canPlay(int color) {
+        return legalMoves(color) != 0;
+    }
+
+    public boolean isFull() {
+        return this.blackDiscs + this.whiteDiscs == 64;
+    }
+
+    /**
+     * Evaluate
+     * Positive if black is winning, negative if white is winning, 0 when it's a draw.
+     * @return int evaluation of the current board
+     **/
+    public int evaluate() {
+        return evaluate(this.blackDiscs, this.whiteDiscs, this.positional, legalMoves(Board.B), legalMoves(Board.W));
+    }
+
+    /**
+     * evaluate
+     * The evaluation of the position with the given discs, calculated from scratch.
+     * @param black, white
+     * @return the same as evaluate() on a board with these discs
+     **/
+    static int evaluate(long black, long white) {
+        return evaluate(Long.bitCount(black), Long.bitCount(white), weight(black) - weight(white),
+                moves(black, white), moves(white, black));
+    }
+
+    private static int evaluate(int blackDiscs, int whiteDiscs, int positional, long blackMoves, long whiteMoves) {
+        int score = 0;
+        boolean blackCanPlay = blackMoves != 0;
+        boolean whiteCanPlay = whiteMoves != 0;
+
+        if (!blackCanPlay && !whiteCanPlay)
+            if (blackDiscs > whiteDiscs)
+                return WIN_SCORE;
+            else if (whiteDiscs > blackDiscs)
+                return -WIN_SCORE;
+            else
+                return 0;
+
+        if (!whiteCanPlay) score += NO_MOVES_SCORE;
+        if (!blackCanPlay) score -= NO_MOVES_SCORE;
+
+        score += positional;
+        score += MOBILITY_WEIGHT * (Long.bitCount(blackMoves) - Long.bitCount(whiteMoves));
+
+        if (whiteDiscs * 2 > blackDiscs * 3)
+            score -= MAJORITY_SCORE;
+
+        if (blackDiscs * 2 > whiteDiscs * 3)
+            score += MAJORITY_SCORE;
+
+        return score;
+    }
+
+    /**
+     * squareWeight
+     * @param square
+     * @return the positional weight of a disc on the square in evaluate()
+     **/
+    static int squareWeight(int square) {
+        return SQUARE_WEIGHTS[square];
+    }
+
+    // Positional weight of the given discs
+    private static int weight(long discs) {
+        return CORNER_WEIGHT * Long.bitCount(discs & CORNERS)
+                + X_WEIGHT * Long.bitCount(discs & X_SQUARES)
+                + C_WEIGHT * Long.bitCount(discs & C_SQUARES)
+                + EDGE_WEIGHT * Long.bitCount(discs & EDGES);
+    }
+
+
+    /* Getters */
+
+    /**
+     * GetChildren
+     * Calculates all possible moves for the given color.
+     * Each child is a full copy of the board, so the search uses makeMove/undoMove instead.
+     * @param color
+     * @return ArrayList<BitBoard> of all the children of the current board
+     **/
+    public ArrayList<BitBoard> getChildren(int color) {
+        ArrayList<BitBoard> children = new ArrayList<>();
+        for (long moves = legalMoves(color); moves != 0; moves &= moves - 1) {
+            BitBoard child = new BitBoard(this);
+            child.placeDisk(Long.numberOfTrailingZeros(moves), color);
+            children.add(child);
+        }
+        return children;
+    }
+
+    public int get(int row, int col) {
+        long square = bit(row, col);
+        if ((this.black & square) != 0) return Board.B;
+        if ((this.white & square) != 0) return Board.W;
+        return Board.E;
+    }
+
+    public long getBlack() {
+        return this.black;
+    }
+
+    public long getWhite() {
+        return this.white;
+    }
+
+    public int getBlackDiscs() {
+        return this.blackDiscs;
+    }
+
+    public int getWhiteDiscs() {
+        return this.whiteDiscs;
+    }
+
+    public int getLastMove() {
+        return this.lastMove;
+    }
+
+    /**
+     * getHash
+     * @return Zobrist hash of the discs and the side to move
+     **/
+    public long getHash() {
+        return this.lastPlayer == Board.W ? this.hash ^ Zobrist.BLACK_TO_MOVE : this.hash;
+    }
+
+    public int getLastPlayer() {
+        return this.lastPlayer;
+    }
+
+
+    /* Setters */
+
+    public void setLastPlayer(int lastPlayer) {
+        this.lastPlayer = lastPlayer;
+    }
+
+
+    /* Text */
+
+    /**
+     * parse
+     * Reads a position in the text format of toString(): 64 squares row by row, 'X' black, 'O' white,
+     * '-' or '.' empty, then the side to move, 'X' or 'O'. Whitespace is ignored.
+     * @param text
+     * @return the position, with no undo history
+     * @throws IllegalArgumentException if the text is not a position
+     **/
+    public static BitBoard parse(String text) {
+        String squares = text.replaceAll("\\s", "").toUpperCase();
+        if (squares.length() != 65)
+            throw new IllegalArgumentException("A position needs 64 squares and the side to move: " + text);
+
+        long black = 0, white = 0;
+        for (int square = 0; square < 64; square++) {
+            switch (squares.charAt(square)) {
+                case 'X' -> black |= 1L << square;
+                case 'O' -> white |= 1L << square;
+                case '-', '.' -> { }
+                default -> throw new IllegalArgumentException("Unknown square '" + squares.charAt(square) + "' in " + text);
+            }
+        }
+        return switch (squares.charAt(64)) {
+            case 'X' -> new BitBoard(black, white, Board.W);
+            case 'O' -> new BitBoard(black, white, Board.B);
+            default -> throw new IllegalArgumentException("Unknown side to move '" + squares.charAt(64) + "' in " + text);
+        };
+    }
+
+    /**
+     * toString
+     * @return the squares row by row and the side to move, see parse
+     **/
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(66);
+        for (int square = 0; square < 64; square++) {
+            long bit = 1L << square;
+            text.append((this.black & bit) != 0 ? 'X' : (this.white & bit) != 0 ? 'O' : '-');
+        }
+        return text.append(' ').append(this.lastPlayer == Board.W ? 'X' : 'O').toString();
+    }
+
+
+    /* Squares */
+
+    public static long bit(int row, int col) {
+        return 1L << (row * 8 + col);
+    }
+
+    public static int row(int square) {
+        return square >>> 3;
+    }
+
+    public static int col(int square) {
+        return square & 7;
+    }
+
+
+    /* Symmetries */
+
+    /**
+     * transformSquare
+     * @param square, symmetry
+     * @return the square that the given square maps to under the symmetry
+     **/
+    public static int transformSquare(int square, int symmetry) {
+        int row = row(square), col = col(square);
+        if ((symmetry & 1) != 0) row = 7 - row;
+        if ((symmetry & 2) != 0) col = 7 - col;
+        return (symmetry & 4) != 0 ? col * 8 + row : row * 8 + col;
+    }
+
+    /**
+     * inverseSquare
+     * @param square, symmetry
+     * @return the square that maps to the given square under the symmetry
+     **/
+    public static int inverseSquare(int square, int symmetry) {
+        int row = row(square), col = col(square);
+        if ((symmetry & 4) != 0) {
+            int swap = row;
+            row = col;
+            col = swap;
+        }
+        if ((symmetry & 1) != 0) row = 7 - row;
+        if ((symmetry & 2) != 0) col = 7 - col;
+        return row * 8 + col;
+    }
+
+    /**
+     * transform
+     * Applies a symmetry to a set of discs, bit-parallel.
+     * @param discs, symmetry
+     * @return the discs moved to their squares under the symmetry, see transformSquare
+     **/
+    public static long transform(long discs, int symmetry) {
+        if ((symmetry & 1) != 0)
+            discs = Long.reverseBytes(discs);
+        if ((symmetry & 2) != 0) {
+            discs = ((discs >>> 1) & 0x5555555555555555L) | ((discs & 0x5555555555555555L) << 1);
+            discs = ((discs >>> 2) & 0x3333333333333333L) | ((discs & 0x3333333333333333L) << 2);
+            discs = ((discs >>> 4) & 0x0F0F0F0F0F0F0F0FL) | ((discs & 0x0F0F0F0F0F0F0F0FL) << 4);
+        }
+        if ((symmetry & 4) != 0) {
+            long t = 0x0F0F0F0F00000000L & (discs ^ (discs << 28));
+            discs ^= t ^ (t >>> 28);
+            t = 0x3333000033330000L & (discs ^ (discs << 14));
+            discs ^= t ^ (t >>> 14);
+            t = 0x5500550055005500L & (discs ^ (discs << 7));
+            discs ^= t ^ (t >>> 7);
+        }
+        return discs;
+    }
+}
@@ -0,0 +1,183 @@
+package othello;
+
+import java.util.ArrayList;
+
+/**
+ * Board
+ *
+ * A class that represents the game board.
+ * Thin adapter over BitBoard, which handles the game logic and the board state (discs).
+ * Class taken and adjusted from the labs.
+ **/
+public class Board {
+    public static final int W = -1;
+    public static final int B = 1;
+    public static final int E = 0;
+    
+    private final BitBoard bitBoard;
+    private Move lastMove;
+    
+    public Board() {
+        this.bitBoard = new BitBoard();
+        this.lastMove = new Move();
+    }
+    
+    // Copy Constructor
+    public Board(Board board) {
+        this.bitBoard = new BitBoard(board.bitBoard);
+        this.lastMove = new Move(board.getLastMove().getRow(), board.getLastMove().getCol());
+    }
+    
+    // Wraps the given position, the board shares it
+    Board(BitBoard bitBoard) {
+        this.bitBoard = bitBoard;
+        this.lastMove = bitBoard.getLastMove() == BitBoard.NO_MOVE
+                ? new Move()
+                : new Move(BitBoard.row(bitBoard.getLastMove()), BitBoard.col(bitBoard.getLastMove()));
+    }
+    
+    
+    /* Move Making */
+    
+    /**
+     * Place Disk
+     * Places a disk of the given color on the board.
+     * Move validity to be checked before calling this method.
+     * @param row, col, color
+     **/
+    public void placeDisk(int row, int col, int color) {
+        this.bitBoard.placeDisk(row * 8 + col, color);
+        this.lastMove.setMove(row, col, -1);
+    }
+    
+    
+    /* Control */
+    
+    /**
+     * isValidMove
+     * Checks if the given move is valid.
+     *
+     * @param row, col, color
+     **/
+    public boolean isValidMove(int row, int col, int color) {
+        return inBounds(row, col) && this.bitBoard.isValidMove(row * 8 + col, color);
+    }
+    
+    /**
+     * canPlay
+     * Checks if there's at least one valid move for the given color.
+     * @return true if there's at least one valid move, false otherwise.
+     **/
+    public boolean canPlay(int color) {
+        return this.bitBoard.canPlay(color);
+    }
+    
+    public boolean inBounds(int row, int col) {
+        return row >= 0 && row < 8 && col >= 0 && col < 8;
+    }
+    
+    /**
+     * Evaluate
+     * Positive if black is winning, negative if white is winning, 0 when it's a draw.
+     * @return int evaluation of the current board
+     **/
+    public int evaluate() {
+        return this.bitBoard.evaluate();
+    }
+    
+    public boolean isFull() {
+        return this.bitBoard.isFull();
+    }
+    
+    
+    /* Getters */
+    
+    /**
+     * GetChildren
+     * Calculates all possible moves for the given color.
+     * @param color
+     * @return ArrayList<Board> of all the children of the current board
+     **/
+    public ArrayList<Board> getChildren(int color) {
+        ArrayList<Board> children = new ArrayList<>();
+        for (BitBoard child : this.bitBoard.getChildren(color))
+            children.add(new Board(child));
+        return children;
+    }
+    
+    public Move getLastMove() {
+        return this.lastMove;
+    }
+    
+    public int getLastPlayer() {
+        return this.bitBoard.getLastPlayer();
+    }
+    
+    public BitBoard getBitBoard() {
+        return this.bitBoard;
+    }
+    
+    /**
+     * getGameBoard
+     * Builds the int[8][8] view of the board from the bitboard.
+     * @return int[][] with B, W or E in every square
+     **/
+    public int[][] getGameBoard() {
+        int[][] gameBoard = new int[8][8];
+        for (int i = 0; i < 8; i++)
+            for (int j = 0; j < 8; j++)
+                gameBoard[i][j] = this.bitBoard.get(i, j);
+        return gameBoard;
+    }
+    
+    
+    /* Setters */
+    
+    public void setLastMove(Move lastMove) {
+        this.lastMove.setRow(lastMove.getRow());
+        this.lastMove.setCol(lastMove.getCol());
+        this.lastMove.setValue(lastMove.getValue());
+    }
+    
+    public void setLastPlayer(int lastPlayer) {
+        this.bitBoard.setLastPlayer(lastPlayer);
+    }
+    
+    
+    /* Printers */
+    
+    /**
+     * print
+     * Prints the board to the console.
+     * @return void
+     **/
+    public void print() {
+        System.out.println("    1 2 3 4 5 6 7 8");
+        System.out.println("    _ _ _ _ _ _ _ _");
+        for (int i = 0; i < 8; i++) {
+            System.out.print(i + 1 + " | ");
+            for (int j = 0; j < 8; j++) {
+                if (this.bitBoard.get(i, j) == B)
+                    System.out.print("B ");
+                else if (this.bitBoard.get(i, j) == W)
+                    System.out.print("W ");
+                else
+                    System.out.print(". ");
+            }
+            System.out.println();
+        }
+    }
+    
+    public void printScore() {
+        System.out.println("The score is:\nBlack: " + this.bitBoard.getBlackDiscs() + "\nWhite: " + this.bitBoard.getWhiteDiscs());
+    }
+    
+    public void printWinner() {
+        if (this.bitBoard.getBlackDiscs() > this.bitBoard.getWhiteDiscs())
+            System.out.println("\nBlack wins!\n");
+        else if (this.bitBoard.getBlackDiscs() < this.bitBoard.getWhiteDiscs())
+            System.out.println("\nWhite wins!\n");
+        else
+            System.out.println("\nDraw!\n");
+    }
+}
\ No newline at end of file
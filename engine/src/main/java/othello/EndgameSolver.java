@@ -0,0 +1,554 @@
+package othello;
+
+/**
+ * EndgameSolver
+ *
+ * Solves the end of the game exactly, instead of searching to a depth and guessing with Board.evaluate.
+ * Works on the discs of the side to move (player) and the other side (opponent) and scores
+ * positions by the final disc difference, with the empty squares counted for the winner.
+ *
+ * Two modes: EXACT finds the exact disc difference, WIN_LOSS_DRAW only finds whether the side to move
+ * wins (1), loses (-1) or draws (0), which is much faster.
+ * Moves are ordered fastest-first (fewest opponent replies) far from the end, and by region parity
+ * close to it. The last 1-4 empty squares have their own unrolled routines.
+ * Nodes where the stable discs of the opponent already keep the score at or below alpha are cut.
+ * Keeps its own small transposition table, or uses one shared with other solvers: solved scores don't depend
+ * on the searcher, so solvers of different games can share what they found.
+ **/
+public class EndgameSolver {
+    public static final int EXACT = 0;
+    public static final int WIN_LOSS_DRAW = 1;
+
+    public static final int DEFAULT_HASH_MB = 8;
+
+    private static final int INFINITY = 65;
+
+    // Positions with fewer empties are too cheap to be worth a table lookup
+    private static final int TABLE_EMPTIES = 6;
+    // Positions with fewer empties are ordered by parity, the rest fastest-first
+    private static final int FASTEST_FIRST_EMPTIES = 5;
+
+    // Limits are checked every CHECK_INTERVAL + 1 nodes
+    private static final int CHECK_INTERVAL = 4095;
+
+    // The four 4x4 quadrants, for parity ordering
+    private static final long[] QUADRANTS = {
+            0x000000000F0F0F0FL, 0x00000000F0F0F0F0L, 0x0F0F0F0F00000000L, 0xF0F0F0F000000000L
+    };
+
+    private final TranspositionTable table;
+    private final boolean sharedTable;
+    private final int[][] moveBuffers = new int[64][32];
+    private final int[][] scoreBuffers = new int[64][32];
+
+    private long nodes;
+    private volatile long deadline = Long.MAX_VALUE;
+    private volatile boolean stop;
+    private int bestMove = BitBoard.NO_MOVE;
+
+    public EndgameSolver() {
+        this(DEFAULT_HASH_MB);
+    }
+
+    public EndgameSolver(int hashSizeMB) {
+        this.table = new TranspositionTable(hashSizeMB);
+        this.sharedTable = false;
+    }
+
+    /**
+     * EndgameSolver
+     * Solves with a table shared with other solvers, which may solve at the same time.
+     * The solver doesn't age the table, its owner does.
+     * @param table
+     **/
+    public EndgameSolver(TranspositionTable table) {
+        this.table = table;
+        this.sharedTable = true;
+    }
+
+
+    /* Control */
+
+    /**
+     * setDeadline
+     * @param nanoTime System.nanoTime() after which the solver gives up, Long.MAX_VALUE for none
+     **/
+    public void setDeadline(long nanoTime) {
+        this.deadline = nanoTime;
+    }
+
+    public void stop() {
+        this.stop = true;
+    }
+
+    public boolean isStopped() {
+        return this.stop;
+    }
+
+    public long getNodes() {
+        return this.nodes;
+    }
+
+    /**
+     * getBestMove
+     * @return the best move found by the last solve, NO_MOVE if it was stopped before finishing any root move
+     **/
+    public int getBestMove() {
+        return this.bestMove;
+    }
+
+
+    /* Solving */
+
+    /**
+     * solve
+     * @param board, color side to move, mode EXACT or WIN_LOSS_DRAW
+     * @return the final disc difference for the side to move (or its sign in WIN_LOSS_DRAW mode),
+     *         meaningless if the solver was stopped
+     **/
+    public int solve(BitBoard board, int color, int mode) {
+        long player = color == Board.B ? board.getBlack() : board.getWhite();
+        long opponent = color == Board.B ? board.getWhite() : board.getBlack();
+        return solve(player, opponent, mode);
+    }
+
+    public int solve(long player, long opponent, int mode) {
+        this.nodes = 0;
+        this.stop = false;
+        this.bestMove = BitBoard.NO_MOVE;
+        if (!this.sharedTable)
+            this.table.newSearch();
+
+        if (mode == WIN_LOSS_DRAW)
+            return Integer.signum(root(player, opponent, -1, 1));
+        return exact(player, opponent);
+    }
+
+    /**
+     * exact
+     * Final scores are always even, so the exact score is found with null-window tests of
+     * "score >= t": starting at the win/loss test t = 0, stepping with doubling steps while the
+     * tests keep failing the same way, and bisecting once the score is bracketed.
+     * Null-window tests are much cheaper than one search with the full window.
+     **/
+    private int exact(long player, long opponent) {
+        int lower = -64, upper = 64;
+        int test = 0;
+        int step = 2;
+        boolean bracketed = false;
+        int move = BitBoard.NO_MOVE;
+
+        while (lower < upper) {
+            int score = root(player, opponent, test - 1, test);
+            if (this.stop)
+                break;
+
+            if (score >= test) {
+                lower = score;
+                move = this.bestMove;
+                if (!bracketed && upper == 64) {
+                    test = Math.min(upper, lower + step);
+                    step *= 2;
+                    continue;
+                }
+            } else {
+                upper = score;
+                if (!bracketed && lower == -64) {
+                    test = Math.max(lower + 2, upper - step + 2);
+                    step *= 2;
+                    continue;
+                }
+            }
+            bracketed = true;
+            test = ((lower + upper) / 2 + 1) & ~1;
+        }
+
+        if (move != BitBoard.NO_MOVE)
+            this.bestMove = move;
+        return lower;
+    }
+
+    private int root(long player, long opponent, int alpha, int beta) {
+        long moves = BitBoard.moves(player, opponent);
+        if (moves == 0) {
+            if (BitBoard.moves(opponent, player) == 0)
+                return finalScore(player, opponent);
+            this.bestMove = BitBoard.PASS;
+            return -search(opponent, player, -beta, -alpha, 0);
+        }
+
+        int count = order(player, opponent, moves, BitBoard.NO_MOVE, 0);
+        int[] squares = this.moveBuffers[0];
+        int best = -INFINITY;
+        for (int i = 0; i < count; i++) {
+            int square = squares[i];
+            long flipped = BitBoard.flips(square, player, opponent);
+            long nextPlayer = opponent & ~flipped;
+            long nextOpponent = player | flipped | (1L << square);
+
+            int score;
+            if (i == 0) {
+                score = -search(nextPlayer, nextOpponent, -beta, -alpha, 1);
+            } else {
+                score = -search(nextPlayer, nextOpponent, -alpha - 1, -alpha, 1);
+                if (score > alpha && score < beta)
+                    score = -search(nextPlayer, nextOpponent, -beta, -alpha, 1);
+            }
+            if (this.stop)
+                break;
+
+            if (score > best) {
+                best = score;
+                this.bestMove = square;
+                alpha = Math.max(alpha, score);
+            }
+            if (alpha >= beta)
+                break;
+        }
+        return best;
+    }
+
+    /**
+     * search
+     * Negamax principal variation search over positions with more than 4 empty squares.
+     * @param player, opponent, alpha, beta, ply
+     * @return the final disc difference for the player, exact inside (alpha, beta), a bound outside
+     **/
+    private int search(long player, long opponent, int alpha, int beta, int ply) {
+        if ((++this.nodes & CHECK_INTERVAL) == 0 && System.nanoTime() > this.deadline)
+            this.stop = true;
+        if (this.stop)
+            return 0;
+
+        long empty = ~(player | opponent);
+        int empties = Long.bitCount(empty);
+        if (empties <= 4)
+            return solveLast(player, opponent, alpha, beta, empty, empties);
+
+        // The player ends with at most the discs the opponent cannot keep stable, counted only
+        // when the opponent has enough discs for the bound to fail low
+        if (2 * Long.bitCount(opponent) >= 64 - alpha) {
+            int upper = 64 - 2 * Stability.count(opponent, player);
+            if (upper <= alpha)
+                return upper;
+        }
+
+        long moves = BitBoard.moves(player, opponent);
+        if (moves == 0) {
+            if (BitBoard.moves(opponent, player) == 0)
+                return finalScore(player, opponent);
+            return -search(opponent, player, -beta, -alpha, ply + 1);
+        }
+
+        long key = 0;
+        int ttMove = BitBoard.NO_MOVE;
+        if (empties >= TABLE_EMPTIES) {
+            key = Zobrist.hash(player, opponent);
+            long entry = this.table.probe(key);
+            if (entry != 0) {
+                int score = TranspositionTable.score(entry);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha))
+                    return score;
+                ttMove = TranspositionTable.move(entry);
+            }
+        }
+
+        int alphaOrig = alpha;
+        int count = order(player, opponent, moves, ttMove, ply);
+        int[] squares = this.moveBuffers[ply];
+        int best = -INFINITY;
+        int bestSquare = BitBoard.NO_MOVE;
+        for (int i = 0; i < count; i++) {
+            int square = squares[i];
+            long flipped = BitBoard.flips(square, player, opponent);
+            long nextPlayer = opponent & ~flipped;
+            long nextOpponent = player | flipped | (1L << square);
+
+            int score;
+            if (i == 0) {
+                score = -search(nextPlayer, nextOpponent, -beta, -alpha, ply + 1);
+            } else {
+                score = -search(nextPlayer, nextOpponent, -alpha - 1, -alpha, ply + 1);
+                if (score > alpha && score < beta)
+                    score = -search(nextPlayer, nextOpponent, -beta, -alpha, ply + 1);
+            }
+
+            if (score > best) {
+                best = score;
+                bestSquare = square;
+                if (score > alpha)
+                    alpha = score;
+            }
+            if (alpha >= beta)
+                break;
+        }
+
+        if (empties >= TABLE_EMPTIES && !this.stop) {
+            int bound = best <= alphaOrig ? TranspositionTable.UPPER
+                    : best >= beta ? TranspositionTable.LOWER
+                    : TranspositionTable.EXACT;
+            this.table.store(key, empties, bound, best, bestSquare);
+        }
+        return best;
+    }
+
+    /**
+     * order
+     * Sorts the moves into the buffer of the ply: table move first, then fastest-first far from
+     * the end (fewest opponent moves after the move, corners preferred), or moves in regions with
+     * an odd number of empty squares first close to the end.
+     * @return the number of moves
+     **/
+    private int order(long player, long opponent, long moves, int ttMove, int ply) {
+        int[] squares = this.moveBuffers[ply];
+        int[] scores = this.scoreBuffers[ply];
+        long empty = ~(player | opponent);
+        boolean fastestFirst = Long.bitCount(empty) > FASTEST_FIRST_EMPTIES;
+        long oddRegions = oddRegions(empty);
+
+        int count = 0;
+        for (; moves != 0; moves &= moves - 1, count++) {
+            int square = Long.numberOfTrailingZeros(moves);
+            long bit = 1L << square;
+            int score;
+
+            if (square == ttMove) {
+                score = Integer.MAX_VALUE;
+            } else if (fastestFirst) {
+                long flipped = BitBoard.flips(square, player, opponent);
+                long after = player | flipped | bit;
+                long replies = BitBoard.moves(opponent & ~flipped, after);
+                score = -(Long.bitCount(replies) + Long.bitCount(replies & BitBoard.CORNERS)) * 16
+                        - 2 * Long.bitCount(neighbours(after) & empty & ~bit);
+                if ((bit & BitBoard.CORNERS) != 0)
+                    score += 8;
+            } else {
+                score = (bit & oddRegions) != 0 ? 1 : 0;
+            }
+
+            // Insertion sort, best first
+            int j = count;
+            for (; j > 0 && scores[j - 1] < score; j--) {
+                scores[j] = scores[j - 1];
+                squares[j] = squares[j - 1];
+            }
+            scores[j] = score;
+            squares[j] = square;
+        }
+        return count;
+    }
+
+    // The squares of the quadrants that hold an odd number of empty squares
+    private static long oddRegions(long empty) {
+        long odd = 0;
+        for (long quadrant : QUADRANTS)
+            if ((Long.bitCount(empty & quadrant) & 1) != 0)
+                odd |= quadrant;
+        return odd;
+    }
+
+
+    /* Last Empties */
+
+    private int solveLast(long player, long opponent, int alpha, int beta, long empty, int empties) {
+        int x1 = Long.numberOfTrailingZeros(empty);
+        empty &= empty - 1;
+        int x2 = Long.numberOfTrailingZeros(empty);
+        empty &= empty - 1;
+        int x3 = Long.numberOfTrailingZeros(empty);
+        empty &= empty - 1;
+        int x4 = Long.numberOfTrailingZeros(empty);
+
+        switch (empties) {
+            case 4: {
+                // Parity: a square alone in its quadrant goes first, pairs in a quadrant go last
+                int q1 = quadrant(x1), q2 = quadrant(x2), q3 = quadrant(x3), q4 = quadrant(x4);
+                if (q1 == q2) {
+                    if (q3 != q4)
+                        return solve4(player, opponent, alpha, beta, x3, x4, x1, x2);
+                } else if (q1 == q3) {
+                    if (q2 != q4)
+                        return solve4(player, opponent, alpha, beta, x2, x4, x1, x3);
+                } else if (q1 == q4) {
+                    return solve4(player, opponent, alpha, beta, x2, x3, x1, x4);
+                }
+                return solve4(player, opponent, alpha, beta, x1, x2, x3, x4);
+            }
+            case 3: {
+                // The square alone in its quadrant goes first
+                int q1 = quadrant(x1), q2 = quadrant(x2), q3 = quadrant(x3);
+                if (q1 == q2)
+                    return solve3(player, opponent, alpha, beta, x3, x1, x2);
+                if (q1 == q3)
+                    return solve3(player, opponent, alpha, beta, x2, x1, x3);
+                return solve3(player, opponent, alpha, beta, x1, x2, x3);
+            }
+            case 2:
+                return solve2(player, opponent, alpha, beta, x1, x2);
+            case 1:
+                return solve1(player, opponent, x1);
+            default:
+                return finalScore(player, opponent);
+        }
+    }
+
+    private int solve4(long player, long opponent, int alpha, int beta, int x1, int x2, int x3, int x4) {
+        this.nodes++;
+        int best = -INFINITY;
+        long flipped;
+
+        if ((flipped = flipsIfEmptyNeighbour(x1, player, opponent)) != 0) {
+            best = -solve3(opponent & ~flipped, player | flipped | (1L << x1), -beta, -alpha, x2, x3, x4);
+            if (best >= beta) return best;
+            if (best > alpha) alpha = best;
+        }
+        if ((flipped = flipsIfEmptyNeighbour(x2, player, opponent)) != 0) {
+            int score = -solve3(opponent & ~flipped, player | flipped | (1L << x2), -beta, -alpha, x1, x3, x4);
+            if (score >= beta) return score;
+            if (score > best) { best = score; if (score > alpha) alpha = score; }
+        }
+        if ((flipped = flipsIfEmptyNeighbour(x3, player, opponent)) != 0) {
+            int score = -solve3(opponent & ~flipped, player | flipped | (1L << x3), -beta, -alpha, x1, x2, x4);
+            if (score >= beta) return score;
+            if (score > best) { best = score; if (score > alpha) alpha = score; }
+        }
+        if ((flipped = flipsIfEmptyNeighbour(x4, player, opponent)) != 0) {
+            int score = -solve3(opponent & ~flipped, player | flipped | (1L << x4), -beta, -alpha, x1, x2, x3);
+            if (score > best) best = score;
+        }
+
+        if (best == -INFINITY) {
+            // No move: pass, or the game is over
+            if (BitBoard.moves(opponent, player) == 0)
+                return finalScore(player, opponent);
+            return -solve4(opponent, player, -beta, -alpha, x1, x2, x3, x4);
+        }
+        return best;
+    }
+
+    private int solve3(long player, long opponent, int alpha, int beta, int x1, int x2, int x3) {
+        this.nodes++;
+        int best = -INFINITY;
+        long flipped;
+
+        if ((flipped = flipsIfEmptyNeighbour(x1, player, opponent)) != 0) {
+            best = -solve2(opponent & ~flipped, player | flipped | (1L << x1), -beta, -alpha, x2, x3);
+            if (best >= beta) return best;
+            if (best > alpha) alpha = best;
+        }
+        if ((flipped = flipsIfEmptyNeighbour(x2, player, opponent)) != 0) {
+            int score = -solve2(opponent & ~flipped, player | flipped | (1L << x2), -beta, -alpha, x1, x3);
+            if (score >= beta) return score;
+            if (score > best) { best = score; if (score > alpha) alpha = score; }
+        }
+        if ((flipped = flipsIfEmptyNeighbour(x3, player, opponent)) != 0) {
+            int score = -solve2(opponent & ~flipped, player | flipped | (1L << x3), -beta, -alpha, x1, x2);
+            if (score > best) best = score;
+        }
+
+        if (best == -INFINITY) {
+            if (BitBoard.moves(opponent, player) == 0)
+                return finalScore(player, opponent);
+            return -solve3(opponent, player, -beta, -alpha, x1, x2, x3);
+        }
+        return best;
+    }
+
+    private int solve2(long player, long opponent, int alpha, int beta, int x1, int x2) {
+        this.nodes++;
+        int best = -INFINITY;
+        long flipped;
+
+        if ((flipped = flipsIfEmptyNeighbour(x1, player, opponent)) != 0) {
+            best = -solve1(opponent & ~flipped, player | flipped | (1L << x1), x2);
+            if (best >= beta) return best;
+        }
+        if ((flipped = flipsIfEmptyNeighbour(x2, player, opponent)) != 0) {
+            int score = -solve1(opponent & ~flipped, player | flipped | (1L << x2), x1);
+            if (score > best) best = score;
+        }
+
+        if (best == -INFINITY) {
+            // Pass: the opponent picks the move that is worst for the player
+            best = INFINITY;
+            if ((flipped = flipsIfEmptyNeighbour(x1, opponent, player)) != 0)
+                best = solve1(player & ~flipped, opponent | flipped | (1L << x1), x2);
+            if ((flipped = flipsIfEmptyNeighbour(x2, opponent, player)) != 0)
+                best = Math.min(best, solve1(player & ~flipped, opponent | flipped | (1L << x2), x1));
+            if (best == INFINITY)
+                return finalScore(player, opponent);
+        }
+        return best;
+    }
+
+    // One empty square left: the player moves there, else the opponent, else the game ends
+    private int solve1(long player, long opponent, int x) {
+        this.nodes++;
+        int discs = Long.bitCount(player);
+
+        long flipped = flipsIfEmptyNeighbour(x, player, opponent);
+        if (flipped != 0)
+            return 2 * (discs + Long.bitCount(flipped) + 1) - 64;
+
+        flipped = flipsIfEmptyNeighbour(x, opponent, player);
+        if (flipped != 0)
+            return 2 * (discs - Long.bitCount(flipped)) - 64;
+
+        // Nobody can fill the last square, it goes to the winner
+        return discs > 63 - discs ? 2 * discs - 62 : 2 * discs - 64;
+    }
+
+
+    /* Helpers */
+
+    // A move needs an opponent disc next to it, checked before the full flip calculation
+    private static long flipsIfEmptyNeighbour(int square, long player, long opponent) {
+        if ((NEIGHBOURS[square] & opponent) == 0)
+            return 0;
+        return BitBoard.flips(square, player, opponent);
+    }
+
+    private static final long[] NEIGHBOURS = new long[64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            int row = BitBoard.row(square), col = BitBoard.col(square);
+            for (int i = Math.max(0, row - 1); i <= Math.min(7, row + 1); i++)
+                for (int j = Math.max(0, col - 1); j <= Math.min(7, col + 1); j++)
+                    if (i != row || j != col)
+                        NEIGHBOURS[square] |= BitBoard.bit(i, j);
+        }
+    }
+
+    // The squares next to the given discs, where the other side may get moves later (potential mobility)
+    private static long neighbours(long discs) {
+        return ((discs << 1) & BitBoard.NOT_A) | ((discs >>> 1) & BitBoard.NOT_H)
+                | (discs << 8) | (discs >>> 8)
+                | ((discs << 9) & BitBoard.NOT_A) | ((discs << 7) & BitBoard.NOT_H)
+                | ((discs >>> 7) & BitBoard.NOT_A) | ((discs >>> 9) & BitBoard.NOT_H);
+    }
+
+    private static int quadrant(int square) {
+        return (square >>> 4 & 2) | (square >>> 2 & 1);
+    }
+
+    /**
+     * finalScore
+     * @param player, opponent
+     * @return the disc difference for the player, with the empty squares counted for the winner
+     **/
+    static int finalScore(long player, long opponent) {
+        int playerDiscs = Long.bitCount(player);
+        int opponentDiscs = Long.bitCount(opponent);
+        int empties = 64 - playerDiscs - opponentDiscs;
+
+        if (playerDiscs > opponentDiscs)
+            return playerDiscs - opponentDiscs + empties;
+        if (playerDiscs < opponentDiscs)
+            return playerDiscs - opponentDiscs - empties;
+        return 0;
+    }
+}
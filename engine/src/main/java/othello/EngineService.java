@@ -0,0 +1,467 @@
+package othello;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * EngineService
+ *
+ * A long-running engine that plays many games at once, one session per connection, over a line protocol
+ * on a local TCP port and on the console.
+ * Sessions only read commands and wait, the searches run on a pool with a thread per CPU, so any number
+ * of sessions share the cores. All the sessions share one transposition table, and another one for their
+ * endgame solvers, so a session costs little memory. The service ages the tables once every session has
+ * searched about once since the last time, rather than at every search: with hundreds of games the entries
+ * of the other games' running searches would look stale at once.
+ * Sessions run on virtual threads when the JVM has them (Java 21), on a cached thread pool otherwise.
+ *
+ * Usage: java othello.EngineService [-port n] [-stdin] [-hash mb] [-cpus n] [-eval file] [-weights file]
+ *                                   [-book file] [-probcut file] [-hashfile file]
+ * The port is 7470 by default and only listens on the loopback address, -port 0 turns TCP off.
+ * -stdin also runs a session on the console, -eval is a pattern weights file, -weights a LinearEvaluator
+ * weights file (evaluation.txt in the working directory by default), -book an opening book file,
+ * -probcut a Multi-ProbCut parameters file. -hashfile maps the transposition table from a file (created with
+ * the -hash size if it doesn't exist), so the service starts with what it searched before a restart.
+ *
+ * Commands, one per line:
+ * new                      the start position
+ * set position text        a position in the text format of BitBoard.parse
+ * set depth n              depth limit of the next searches, 64 for none (the default)
+ * set time ms              time limit of the next searches, 0 for none (1000 by default).
+ *                          Without either limit a search runs until stop.
+ * move row,col | pass      plays a move of the side to move, rows and columns from 1
+ * go                       searches the side to move in the background and answers
+ *                          "bestmove row,col source score s depth d nodes n ms t" (score for the side to move)
+ *                          or "bestmove pass"
+ * stop                     ends the running search, it still answers bestmove first
+ * stats                    "stats ..." with the SearchStats of the session's last search,
+ *                          then "service ..." with the sessions and searches of the whole service
+ * ping n                   "pong n"
+ * quit                     ends the session
+ * Anything wrong is answered "error message".
+ **/
+public final class EngineService implements Closeable {
+    public static final int DEFAULT_PORT = 7470;
+    public static final long DEFAULT_MOVE_TIME = 1000;
+
+    // Connections waiting to be accepted, enough for a burst of clients connecting at once
+    private static final int BACKLOG = 1024;
+
+    // Longest wait between two stops of a search that has not stopped yet, in milliseconds
+    private static final long MAX_STOP_WAIT = 64;
+
+    // The endgame table of all the sessions
+    private static final int ENDGAME_HASH_MB = 64;
+
+    private final TranspositionTable table;
+    private final TranspositionTable endgameTable = new TranspositionTable(ENDGAME_HASH_MB);
+    private final ThreadPoolExecutor searchPool;
+    private final ExecutorService sessionPool;
+    private final Evaluator evaluator;
+    private final OpeningBook openingBook;
+    private final ProbCut probCut;
+
+    private final AtomicInteger sessions = new AtomicInteger();
+    private final AtomicLong searches = new AtomicLong();
+    private final AtomicLong agedAt = new AtomicLong();    // Searches when the table was last aged
+    private volatile ServerSocket server;
+
+    /**
+     * EngineService
+     * @param table transposition table shared by all the sessions, cpus threads of the search pool,
+     *        evaluator copied for every player, openingBook (null for none),
+     *        probCut parameters of the selective search (null for none)
+     **/
+    public EngineService(TranspositionTable table, int cpus, Evaluator evaluator, OpeningBook openingBook,
+                         ProbCut probCut) {
+        this.table = table;
+        this.searchPool = new ThreadPoolExecutor(cpus, cpus, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "EngineService search");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.sessionPool = sessionExecutor();
+        this.evaluator = evaluator;
+        this.openingBook = openingBook;
+        this.probCut = probCut;
+    }
+
+    /**
+     * sessionExecutor
+     * A virtual thread per session where the JVM has them. Found by reflection, the build targets Java 17.
+     * @return the executor that runs the sessions
+     **/
+    static ExecutorService sessionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "EngineService session");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * listen
+     * Accepts connections on the loopback address until the service is closed, a session for each.
+     * @param port
+     **/
+    public void listen(int port) throws IOException {
+        try (ServerSocket server = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress())) {
+            this.server = server;
+            System.err.println("EngineService listening on port " + server.getLocalPort());
+            while (!server.isClosed()) {
+                Socket socket;
+                try {
+                    socket = server.accept();
+                } catch (IOException e) {
+                    if (server.isClosed())
+                        break;
+                    throw e;
+                }
+                this.sessionPool.execute(() -> {
+                    try (socket) {
+                        serve(socket.getInputStream(), socket.getOutputStream());
+                    } catch (IOException e) {
+                        System.err.println("Session " + socket.getRemoteSocketAddress() + " failed: " + e.getMessage());
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * start
+     * Runs a session on the given streams in the background.
+     * @param in, out
+     * @return the session, done when it has ended
+     **/
+    public Future<?> start(InputStream in, OutputStream out) {
+        return this.sessionPool.submit(() -> {
+            serve(in, out);
+            return null;
+        });
+    }
+
+    /**
+     * serve
+     * Runs a session on the given streams, until quit or the end of the input.
+     * @param in, out
+     **/
+    public void serve(InputStream in, OutputStream out) throws IOException {
+        this.sessions.incrementAndGet();
+        try {
+            new Session(in, out).run();
+        } finally {
+            this.sessions.decrementAndGet();
+        }
+    }
+
+    // Counts a search, and ages the tables once there have been about as many since the last time as sessions
+    private void countSearch() {
+        long searches = this.searches.incrementAndGet();
+        long agedAt = this.agedAt.get();
+        if (searches - agedAt >= Math.max(1, this.sessions.get()) && this.agedAt.compareAndSet(agedAt, searches)) {
+            this.table.newSearch();
+            this.endgameTable.newSearch();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        ServerSocket server = this.server;
+        if (server != null)
+            server.close();
+        this.sessionPool.shutdownNow();
+        this.searchPool.shutdownNow();
+        this.table.flush();
+    }
+
+
+    /* Sessions */
+
+    /**
+     * Session
+     * One game: its board and search limits, and a player for each color.
+     * The session thread reads the commands, a search runs on the search pool and answers from there.
+     **/
+    private final class Session {
+        private final BufferedReader in;
+        private final PrintWriter out;
+
+        private Board board = new Board();
+        private int depth = PlayerAB.MAX_DEPTH;
+        private long moveTime = DEFAULT_MOVE_TIME;
+        private final PlayerAB[] players = new PlayerAB[2];
+        private PlayerAB player;
+        private Future<?> search;
+        private volatile boolean searching;   // Cleared before the answer is sent, so the client can go on at once
+        private volatile boolean stopRequested;
+
+        Session(InputStream in, OutputStream out) {
+            this.in = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            this.out = new PrintWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        }
+
+        void run() throws IOException {
+            try {
+                for (String line; (line = this.in.readLine()) != null; ) {
+                    line = line.trim();
+                    if (line.isEmpty())
+                        continue;
+                    try {
+                        if (!execute(line.split("\\s+")))
+                            break;
+                    } catch (IllegalArgumentException | IllegalStateException e) {
+                        send("error " + e.getMessage());
+                    }
+                }
+            } finally {
+                stop();
+                for (PlayerAB player : this.players)
+                    if (player != null)
+                        player.close();
+            }
+        }
+
+        // false once the session should end
+        private boolean execute(String[] command) {
+            switch (command[0]) {
+                case "new" -> {
+                    checkIdle();
+                    this.board = new Board();
+                }
+                case "set" -> set(command);
+                case "move" -> {
+                    checkIdle();
+                    play(argument(command, 1));
+                }
+                case "go" -> go();
+                case "stop" -> stop();
+                case "stats" -> {
+                    SearchStats stats = this.player == null ? null : this.player.getStats();
+                    send("stats " + (stats == null ? "none" : stats));
+                    send(String.format("service sessions %d searching %d queued %d searches %d",
+                            EngineService.this.sessions.get(), EngineService.this.searchPool.getActiveCount(),
+                            EngineService.this.searchPool.getQueue().size(), EngineService.this.searches.get()));
+                }
+                case "ping" -> send("pong" + (command.length > 1 ? " " + command[1] : ""));
+                case "quit" -> {
+                    return false;
+                }
+                default -> throw new IllegalArgumentException("unknown command " + command[0]);
+            }
+            return true;
+        }
+
+        private void set(String[] command) {
+            checkIdle();
+            String value = argument(command, 2);
+            try {
+                switch (argument(command, 1)) {
+                    // The position may have spaces, e.g. before the side to move like BitBoard.toString
+                    case "position" -> this.board = new Board(BitBoard.parse(
+                            String.join(" ", Arrays.copyOfRange(command, 2, command.length))));
+                    case "depth" -> this.depth = Math.max(1, Math.min(PlayerAB.MAX_DEPTH, Integer.parseInt(value)));
+                    case "time" -> this.moveTime = Math.max(0, Long.parseLong(value));
+                    default -> throw new IllegalArgumentException("unknown setting " + command[1]);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("not a number: " + value);
+            }
+        }
+
+        private void play(String move) {
+            int color = -this.board.getLastPlayer();
+            if (move.equals("pass")) {
+                if (this.board.canPlay(color))
+                    throw new IllegalArgumentException("pass with legal moves");
+                this.board.setLastPlayer(color);
+                return;
+            }
+
+            String[] rowCol = move.split(",");
+            try {
+                int row = Integer.parseInt(rowCol[0]) - 1;
+                int col = rowCol.length == 2 ? Integer.parseInt(rowCol[1]) - 1 : -1;
+                if (!this.board.isValidMove(row, col, color))
+                    throw new IllegalArgumentException("illegal move " + move);
+                this.board.placeDisk(row, col, color);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("not a move: " + move);
+            }
+        }
+
+        private void go() {
+            checkIdle();
+            int color = -this.board.getLastPlayer();
+            if (!this.board.canPlay(color)) {
+                if (!this.board.canPlay(-color))
+                    throw new IllegalStateException("game over");
+                send("bestmove pass");
+                return;
+            }
+
+            PlayerAB player = player(color);
+            long moveTime = this.moveTime;
+            Board board = this.board;
+            countSearch();
+            this.searching = true;
+            this.stopRequested = false;
+            this.search = EngineService.this.searchPool.submit(() -> {
+                String answer;
+                try {
+                    player.setMoveTime(this.stopRequested ? 1 : moveTime);
+                    Move move = player.MiniMax(board);
+                    answer = bestMove(move, player.getStats(), color);
+                } catch (RuntimeException e) {
+                    answer = "error search failed: " + e;
+                }
+                this.searching = false;
+                send(answer);
+            });
+        }
+
+        // Players are kept while the depth stays the same, so they keep their move ordering between moves
+        private PlayerAB player(int color) {
+            int index = color == Board.B ? 0 : 1;
+            PlayerAB player = this.players[index];
+            if (player == null || player.maxDepth != this.depth) {
+                if (player != null)
+                    player.close();
+                player = new PlayerAB(this.depth, color, true);
+                player.setTranspositionTable(EngineService.this.table);
+                player.setEndgameTable(EngineService.this.endgameTable);
+                player.setOpeningBook(EngineService.this.openingBook);
+                player.setProbCut(EngineService.this.probCut);
+                player.setEvaluator(EngineService.this.evaluator.copy());
+                this.players[index] = player;
+            }
+            this.player = player;
+            return player;
+        }
+
+        /**
+         * stop
+         * Stops the running search and waits for its answer.
+         * A search still queued for a CPU gets the shortest time limit when it starts. One that is just starting
+         * clears the stop flag, so the stop is repeated until the search is done.
+         **/
+        private void stop() {
+            Future<?> search = this.search;
+            if (search == null)
+                return;
+
+            this.stopRequested = true;
+            for (long wait = 1; ; wait = Math.min(2 * wait, MAX_STOP_WAIT)) {
+                this.player.stop();
+                try {
+                    search.get(wait, TimeUnit.MILLISECONDS);
+                    return;
+                } catch (TimeoutException e) {
+                    // Not stopped yet
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("search failed", e.getCause());
+                }
+            }
+        }
+
+        private void checkIdle() {
+            if (this.searching)
+                throw new IllegalStateException("busy, stop the search first");
+        }
+
+        private void send(String line) {
+            synchronized (this.out) {
+                this.out.println(line);
+                this.out.flush();
+            }
+        }
+    }
+
+    private static String argument(String[] command, int index) {
+        if (command.length <= index)
+            throw new IllegalArgumentException("missing argument of " + command[0]);
+        return command[index];
+    }
+
+    private static String bestMove(Move move, SearchStats stats, int color) {
+        String square = (move.getRow() + 1) + "," + (move.getCol() + 1);
+        if (stats == null || stats.getSource().equals(SearchStats.BOOK))
+            return "bestmove " + square + " book";
+        return String.format("bestmove %s %s score %d depth %d nodes %d ms %d", square, stats.getSource(),
+                stats.getScore() * color, stats.getDepth(), stats.getNodes(), stats.getNanos() / 1_000_000);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+        int hashSizeMB = PlayerAB.DEFAULT_HASH_MB;
+        int cpus = Runtime.getRuntime().availableProcessors();
+        boolean console = false;
+        Evaluator evaluator = Main.evaluator();
+        OpeningBook openingBook = Main.openingBook();
+        ProbCut probCut = Main.probCut();
+        String hashFile = null;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-port" -> port = Integer.parseInt(args[++i]);
+                case "-stdin" -> console = true;
+                case "-hash" -> hashSizeMB = Integer.parseInt(args[++i]);
+                case "-cpus" -> cpus = Integer.parseInt(args[++i]);
+                case "-eval" -> evaluator = new PatternEvaluator(PatternWeights.load(Paths.get(args[++i])));
+                case "-weights" -> evaluator = LinearEvaluator.load(Paths.get(args[++i]));
+                case "-book" -> openingBook = OpeningBook.load(Paths.get(args[++i]));
+                case "-probcut" -> probCut = ProbCut.load(Paths.get(args[++i]));
+                case "-hashfile" -> hashFile = args[++i];
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        TranspositionTable table = hashFile != null
+                ? TranspositionTable.open(Paths.get(hashFile), hashSizeMB)
+                : new TranspositionTable(hashSizeMB);
+        try (EngineService service = new EngineService(table, Math.max(1, cpus), evaluator, openingBook, probCut)) {
+            Future<?> consoleSession = console ? service.start(System.in, System.out) : null;
+            if (port > 0) {
+                service.listen(port);
+            } else if (consoleSession != null) {
+                try {
+                    consoleSession.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    throw new IOException("Console session failed", e.getCause());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package othello;
+
+/**
+ * Evaluator
+ *
+ * Scores the positions at the leaves of the search, positive if black is winning.
+ * Evaluators that keep state of their own (like PatternEvaluator) are told about the position
+ * a search starts from and every move it makes and takes back.
+ * Every search thread works with its own copy().
+ **/
+public interface Evaluator {
+    // The hand-coded weights of BitBoard.evaluate
+    Evaluator DEFAULT = BitBoard::evaluate;
+
+    /**
+     * evaluate
+     * @param board the position reached by the moves passed to makeMove
+     * @return int evaluation of the board, positive if black is winning
+     **/
+    int evaluate(BitBoard board);
+
+    /**
+     * setPosition
+     * Called when a search starts from the given position.
+     * @param board
+     **/
+    default void setPosition(BitBoard board) {
+    }
+
+    /**
+     * makeMove
+     * Called after the search plays a move on the board.
+     * @param square, flipped discs flipped by the move, color
+     **/
+    default void makeMove(int square, long flipped, int color) {
+    }
+
+    /**
+     * undoMove
+     * Called after the search takes back a move, with the same arguments as its makeMove.
+     * @param square, flipped, color
+     **/
+    default void undoMove(int square, long flipped, int color) {
+    }
+
+    /**
+     * copy
+     * @return an evaluator for another search thread, stateless evaluators return themselves
+     **/
+    default Evaluator copy() {
+        return this;
+    }
+}
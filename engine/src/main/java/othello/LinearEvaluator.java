@@ -0,0 +1,177 @@
+package othello;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * LinearEvaluator
+ *
+ * The evaluation of BitBoard.evaluate with weights read from a file instead of its constants,
+ * plus the stable disc difference (see Stability). The score is the sum of every feature times its weight:
+ * the difference in corner, X-square, C-square and edge discs and in moves, the side left without moves,
+ * the side holding a 3:2 disc majority, and the difference in stable discs. Finished games score
+ * the winner like BitBoard.evaluate. With DEFAULT_WEIGHTS it scores exactly like BitBoard.evaluate.
+ * The weights are fitted to played games by Tuner.
+ *
+ * File format, text: a line "feature weight" for every feature, named like FEATURE_NAMES.
+ * Features left out keep their default weight. Lines starting with # are comments.
+ **/
+public final class LinearEvaluator implements Evaluator {
+    public static final String DEFAULT_FILE = "evaluation.txt";
+
+    public static final int CORNER = 0;
+    public static final int X_SQUARE = 1;
+    public static final int C_SQUARE = 2;
+    public static final int EDGE = 3;
+    public static final int MOBILITY = 4;
+    public static final int NO_MOVES = 5;
+    public static final int MAJORITY = 6;
+    public static final int STABILITY = 7;
+    public static final int FEATURES = 8;
+
+    static final String[] FEATURE_NAMES = {"corner", "x", "c", "edge", "mobility", "nomoves", "majority", "stability"};
+
+    static final int[] DEFAULT_WEIGHTS = {
+            BitBoard.CORNER_WEIGHT, BitBoard.X_WEIGHT, BitBoard.C_WEIGHT, BitBoard.EDGE_WEIGHT,
+            BitBoard.MOBILITY_WEIGHT, BitBoard.NO_MOVES_SCORE, BitBoard.MAJORITY_SCORE, 0
+    };
+
+    private final int[] weights;
+
+    /**
+     * LinearEvaluator
+     * @param weights of every feature, in the order of the feature constants
+     **/
+    public LinearEvaluator(int[] weights) {
+        if (weights.length != FEATURES)
+            throw new IllegalArgumentException("Expected " + FEATURES + " weights, got " + weights.length);
+        this.weights = weights.clone();
+    }
+
+    /**
+     * load
+     * @param path
+     * @return an evaluator with the weights of the file
+     * @throws IOException if the file can't be read or has an unknown feature
+     **/
+    public static LinearEvaluator load(Path path) throws IOException {
+        int[] weights = DEFAULT_WEIGHTS.clone();
+        int number = 0;
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            number++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#"))
+                continue;
+
+            String[] fields = line.split("\\s+");
+            int feature = Arrays.asList(FEATURE_NAMES).indexOf(fields[0]);
+            if (feature < 0 || fields.length != 2)
+                throw new IOException(path + ":" + number + ": expected one of " + String.join(", ", FEATURE_NAMES)
+                        + " and a weight");
+            try {
+                weights[feature] = Integer.parseInt(fields[1]);
+            } catch (NumberFormatException e) {
+                throw new IOException(path + ":" + number + ": " + e.getMessage());
+            }
+        }
+        return new LinearEvaluator(weights);
+    }
+
+    /**
+     * write
+     * @param path, comment written on the first line
+     * @throws IOException
+     **/
+    public void write(Path path, String comment) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("# " + comment);
+        for (int feature = 0; feature < FEATURES; feature++)
+            lines.add(FEATURE_NAMES[feature] + " " + this.weights[feature]);
+        Files.write(path, lines, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * getWeights
+     * @return a copy of the weights
+     **/
+    public int[] getWeights() {
+        return this.weights.clone();
+    }
+
+    @Override
+    public int evaluate(BitBoard board) {
+        long blackMoves = board.legalMoves(Board.B), whiteMoves = board.legalMoves(Board.W);
+        if (blackMoves == 0 && whiteMoves == 0)
+            return board.evaluate();
+        return score(board.getBlack(), board.getWhite(), blackMoves, whiteMoves);
+    }
+
+    /**
+     * evaluate
+     * evaluate(BitBoard) without a board, for BatchEvaluator.
+     * @param black, white discs
+     * @return the score, positive if black is winning
+     **/
+    int evaluate(long black, long white) {
+        long blackMoves = BitBoard.moves(black, white), whiteMoves = BitBoard.moves(white, black);
+        if (blackMoves == 0 && whiteMoves == 0)
+            return BitBoard.evaluate(black, white);
+        return score(black, white, blackMoves, whiteMoves);
+    }
+
+    // The score of a game that is not over
+    private int score(long black, long white, long blackMoves, long whiteMoves) {
+        int score = this.weights[CORNER] * difference(black, white, BitBoard.CORNERS)
+                + this.weights[X_SQUARE] * difference(black, white, BitBoard.X_SQUARES)
+                + this.weights[C_SQUARE] * difference(black, white, BitBoard.C_SQUARES)
+                + this.weights[EDGE] * difference(black, white, BitBoard.EDGES)
+                + this.weights[MOBILITY] * (Long.bitCount(blackMoves) - Long.bitCount(whiteMoves))
+                + this.weights[NO_MOVES] * noMoves(blackMoves, whiteMoves)
+                + this.weights[MAJORITY] * majority(Long.bitCount(black), Long.bitCount(white));
+        // Stability is the costly feature, skipped when it doesn't count
+        if (this.weights[STABILITY] != 0)
+            score += this.weights[STABILITY] * (Stability.count(black, white) - Stability.count(white, black));
+        return score;
+    }
+
+    /**
+     * features
+     * The features of a position, from black's point of view.
+     * @param black, white discs, features filled with the value of every feature
+     * @return false if the game is over, the features are not filled then
+     **/
+    static boolean features(long black, long white, int[] features) {
+        long blackMoves = BitBoard.moves(black, white), whiteMoves = BitBoard.moves(white, black);
+        if (blackMoves == 0 && whiteMoves == 0)
+            return false;
+
+        features[CORNER] = difference(black, white, BitBoard.CORNERS);
+        features[X_SQUARE] = difference(black, white, BitBoard.X_SQUARES);
+        features[C_SQUARE] = difference(black, white, BitBoard.C_SQUARES);
+        features[EDGE] = difference(black, white, BitBoard.EDGES);
+        features[MOBILITY] = Long.bitCount(blackMoves) - Long.bitCount(whiteMoves);
+        features[NO_MOVES] = noMoves(blackMoves, whiteMoves);
+        features[MAJORITY] = majority(Long.bitCount(black), Long.bitCount(white));
+        features[STABILITY] = Stability.count(black, white) - Stability.count(white, black);
+        return true;
+    }
+
+    private static int difference(long black, long white, long squares) {
+        return Long.bitCount(black & squares) - Long.bitCount(white & squares);
+    }
+
+    // 1 if white has no moves, -1 if black has none
+    private static int noMoves(long blackMoves, long whiteMoves) {
+        return (whiteMoves == 0 ? 1 : 0) - (blackMoves == 0 ? 1 : 0);
+    }
+
+    // 1 if black holds a 3:2 majority, -1 if white does
+    private static int majority(int blackDiscs, int whiteDiscs) {
+        return (blackDiscs * 2 > whiteDiscs * 3 ? 1 : 0) - (whiteDiscs * 2 > blackDiscs * 3 ? 1 : 0);
+    }
+}
@@ -1,6 +1,11 @@
-import java.util.Scanner;
+package othello;
 
-import static java.lang.Thread.sleep;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Scanner;
 
 /**
  * Othello - MiniMax
@@ -15,22 +20,41 @@ public class Main
     public static void main(String[] args){
         intro();                         // Intro Message
         int gameMode = getGameMode();    // Get the desired mode of the game
-        int depth = 0;
         Board board = new Board();
         PlayerAB black, white;
         
         if(gameMode == 1){
-            depth = getDepth();          // Get the desired depth of the tree
+            long moveTime = getMoveTime();   // Get the desired thinking time of the AI
             boolean playFirst = playFirst();
-            black = new PlayerAB(depth, Board.B, !playFirst);
-            white = new PlayerAB(depth, Board.W, playFirst);
+            black = new PlayerAB(PlayerAB.MAX_DEPTH, Board.B, !playFirst);
+            white = new PlayerAB(PlayerAB.MAX_DEPTH, Board.W, playFirst);
+            black.setMoveTime(moveTime);
+            white.setMoveTime(moveTime);
         } else if (gameMode == 2){
-            depth = getDepth();          // Get the desired depth of the tree
-            black = new PlayerAB(depth, Board.B, true);
-            white = new PlayerAB(depth, Board.W, true);
+            long moveTime = getMoveTime();   // Get the desired thinking time of the AI
+            black = new PlayerAB(PlayerAB.MAX_DEPTH, Board.B, true);
+            white = new PlayerAB(PlayerAB.MAX_DEPTH, Board.W, true);
+            black.setMoveTime(moveTime);
+            white.setMoveTime(moveTime);
         } else {
-            black = new PlayerAB(depth, Board.B, false);
-            white = new PlayerAB(depth, Board.W, false);
+            black = new PlayerAB(0, Board.B, false);
+            white = new PlayerAB(0, Board.W, false);
+        }
+        
+        OpeningBook book = openingBook();
+        black.setOpeningBook(book);
+        white.setOpeningBook(book);
+        ProbCut probCut = probCut();
+        black.setProbCut(probCut);
+        white.setProbCut(probCut);
+        Evaluator evaluator = evaluator();
+        black.setEvaluator(evaluator);
+        white.setEvaluator(evaluator);
+        
+        // -stats logs what the search of every AI move did
+        if(Arrays.asList(args).contains("-stats")){
+            black.setStatsLog(System.err);
+            white.setStatsLog(System.err);
         }
         
         boolean canPlayW, canPlayB;
@@ -46,16 +70,10 @@ public class Main
                         System.out.println("\nBlack's Turn");
 
                         Move move = black.move(board);
-    
-                        try {
-                            if(black.isAI() && depth <= 9)
-                                sleep(1000);
-                        } catch (InterruptedException e) {
-                            e.printStackTrace();
-                        }
                         
                         System.out.println("Black's move: " + (move.getRow() + 1) + " " + (move.getCol() + 1));
                         board.placeDisk(move.getRow(), move.getCol(), Board.B);
+                        if(gameMode == 1) black.ponder(board);   // Think on the human's time
                     } else {
                         System.out.println("\nBlack cannot play! Skipping turn...");
                     }
@@ -69,15 +87,9 @@ public class Main
 
                         Move move = white.move(board);
                         
-                        try {
-                            if(white.isAI() && depth <= 9)
-                                sleep(1000);
-                        } catch (InterruptedException e) {
-                            e.printStackTrace();
-                        }
-                        
                         System.out.println("White's move: " + (move.getRow() + 1) + " " + (move.getCol() + 1));
                         board.placeDisk(move.getRow(), move.getCol(), Board.W);
+                        if(gameMode == 1) white.ponder(board);   // Think on the human's time
                     } else {
                         System.out.println("\nWhite cannot play! Skipping turn...");
                     }
@@ -88,6 +100,8 @@ public class Main
             }
             board.print();
         }
+        black.stopPondering();
+        white.stopPondering();
         board.printWinner();
         board.printScore();
 
@@ -138,20 +152,72 @@ public class Main
         return answer.equals("y");
     }
     
-    public static int getDepth() {
+    public static long getMoveTime() {
         Scanner scanner = new Scanner(System.in);
-        int depth;
+        double seconds;
     
         do {
-            System.out.println("\nPlease pick the maximum depth for the AI.\nRecommendations:\n(2) Easy\n(6) Medium\n(10) Hard");
+            System.out.println("\nPlease pick the thinking time per move for the AI in seconds.\nRecommendations:\n(0.05) Easy\n(0.5) Medium\n(3) Hard");
             try{
-                depth = Integer.parseInt(scanner.nextLine());
+                seconds = Double.parseDouble(scanner.nextLine());
             } catch (Exception e) {
-                depth = 0;
+                seconds = 0;
             }
-        } while (depth < 1);
-        System.out.println("\nYou have chosen a depth of " + depth + ". Best of luck!");
+        } while (!(seconds > 0));
+        System.out.println("\nYou have chosen " + seconds + " seconds per move. Best of luck!");
+        
+        return Math.max(1, Math.round(seconds * 1000));
+    }
+    
+    /**
+     * openingBook
+     * @return the opening book in the working directory, null if there is none
+     **/
+    public static OpeningBook openingBook() {
+        Path path = Paths.get(OpeningBook.DEFAULT_FILE);
+        if(!Files.exists(path))
+            return null;
         
-        return depth;
+        try {
+            return OpeningBook.load(path);
+        } catch (IOException e) {
+            System.out.println("Could not load the opening book: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * probCut
+     * @return the Multi-ProbCut parameters in the working directory, null if there are none
+     **/
+    public static ProbCut probCut() {
+        Path path = Paths.get(ProbCut.DEFAULT_FILE);
+        if(!Files.exists(path))
+            return null;
+        
+        try {
+            return ProbCut.load(path);
+        } catch (IOException e) {
+            System.out.println("Could not load the ProbCut parameters: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * evaluator
+     * @return the evaluation with the tuned weights in the working directory (see Tuner),
+     *         the default evaluation if there are none
+     **/
+    public static Evaluator evaluator() {
+        Path path = Paths.get(LinearEvaluator.DEFAULT_FILE);
+        if(!Files.exists(path))
+            return Evaluator.DEFAULT;
+        
+        try {
+            return LinearEvaluator.load(path);
+        } catch (IOException e) {
+            System.out.println("Could not load the evaluation weights: " + e.getMessage());
+            return Evaluator.DEFAULT;
+        }
     }
 }
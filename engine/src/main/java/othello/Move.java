@@ -1,3 +1,5 @@
+package othello;
+
 /**
  * Move Class
  *
@@ -0,0 +1,227 @@
+package othello;
+
+/**
+ * MoveOrderer
+ *
+ * Orders the legal moves of a node so that alpha-beta finds its cutoffs early.
+ * Moves are tried in this order:
+ * the transposition table (or previous iteration) move, the two killer moves of the ply,
+ * moves by history score, and last by a static prior over the squares that Board.evaluate weights.
+ * Also counts how often a cutoff happens, and how often it happens on the first move tried.
+ **/
+public class MoveOrderer {
+    private static final int TT_SCORE = 1 << 30;
+    private static final int KILLER_SCORE = 1 << 29;
+    private static final int HISTORY_LIMIT = 1 << 20;
+    private static final int[] SQUARE_PRIOR = new int[64];
+
+    static {
+        // Corners first, X and C squares last, the same weights as the evaluation
+        for (int square = 0; square < 64; square++) {
+            long bit = 1L << square;
+            if ((BitBoard.CORNERS & bit) != 0) SQUARE_PRIOR[square] += 50;
+            if ((BitBoard.X_SQUARES & bit) != 0) SQUARE_PRIOR[square] -= 20;
+            if ((BitBoard.C_SQUARES & bit) != 0) SQUARE_PRIOR[square] -= 20;
+            if ((BitBoard.EDGES & bit) != 0) SQUARE_PRIOR[square] += 3;
+        }
+    }
+
+    private final int[][] killers = new int[PlayerAB.MAX_DEPTH + 1][2];
+    private final int[][] history = new int[2][64];
+
+    // Move and score buffers of every ply, so that ordering allocates nothing
+    private final int[][] squares = new int[PlayerAB.MAX_DEPTH + 1][64];
+    private final int[][] scores = new int[PlayerAB.MAX_DEPTH + 1][64];
+
+    private long cutoffs;
+    private long firstMoveCutoffs;
+
+    /**
+     * newSearch
+     * Clears the killers and statistics and ages the history of the previous move.
+     **/
+    public void newSearch() {
+        for (int[] killer : this.killers) {
+            killer[0] = BitBoard.NO_MOVE;
+            killer[1] = BitBoard.NO_MOVE;
+        }
+        for (int[] scores : this.history)
+            for (int square = 0; square < 64; square++)
+                scores[square] >>= 2;
+
+        this.cutoffs = 0;
+        this.firstMoveCutoffs = 0;
+    }
+
+    /**
+     * order
+     * Scores the legal moves into the buffers of the ply. They are then taken best first with next().
+     * Right above the leaves only the transposition table move and the killers are scored,
+     * the history and square prior cost more there than they save.
+     * The buffers are valid until the next call for the same ply.
+     * @param moves, ttMove, ply, color, depth remaining depth of the node
+     * @return the number of moves
+     **/
+    public int order(long moves, int ttMove, int ply, int color, int depth) {
+        return depth <= 1 ? orderByKillers(moves, ttMove, ply) : orderByHistory(moves, ttMove, ply, color);
+    }
+
+    private int orderByKillers(long moves, int ttMove, int ply) {
+        int[] squares = this.squares[ply];
+        int[] scores = this.scores[ply];
+        int[] killer = this.killers[ply];
+
+        int count = 0;
+        for (; moves != 0; moves &= moves - 1, count++) {
+            int square = Long.numberOfTrailingZeros(moves);
+            scores[count] = square == ttMove ? TT_SCORE
+                    : square == killer[0] ? KILLER_SCORE + 1
+                    : square == killer[1] ? KILLER_SCORE
+                    : 0;
+            squares[count] = square;
+        }
+        return count;
+    }
+
+    private int orderByHistory(long moves, int ttMove, int ply, int color) {
+        int[] squares = this.squares[ply];
+        int[] scores = this.scores[ply];
+        int[] killer = this.killers[ply];
+        int[] history = this.history[index(color)];
+
+        int count = 0;
+        for (; moves != 0; moves &= moves - 1, count++) {
+            int square = Long.numberOfTrailingZeros(moves);
+
+            if (square == ttMove)
+                scores[count] = TT_SCORE;
+            else if (square == killer[0])
+                scores[count] = KILLER_SCORE + 1;
+            else if (square == killer[1])
+                scores[count] = KILLER_SCORE;
+            else
+                scores[count] = (history[square] << 7) + SQUARE_PRIOR[square] + 64;
+            squares[count] = square;
+        }
+        return count;
+    }
+
+    /**
+     * next
+     * Selection sort one step at a time: most nodes cut off on the first move,
+     * so the rest of the moves are usually never sorted.
+     * @param ply, index, count
+     * @return the square of the best move among the moves from index on
+     **/
+    public int next(int ply, int index, int count) {
+        int[] squares = this.squares[ply];
+        int[] scores = this.scores[ply];
+
+        int best = index;
+        for (int i = index + 1; i < count; i++)
+            if (scores[i] > scores[best])
+                best = i;
+
+        int square = squares[best];
+        squares[best] = squares[index];
+        scores[best] = scores[index];
+        squares[index] = square;
+        scores[index] = TT_SCORE;
+        return square;
+    }
+
+    /**
+     * orderStatic
+     * Orders the moves by the square prior alone, ties by square, so the order is always the same.
+     * @param moves, ply
+     * @return the number of moves
+     **/
+    public int orderStatic(long moves, int ply) {
+        int[] squares = this.squares[ply];
+        int[] scores = this.scores[ply];
+
+        int count = 0;
+        for (; moves != 0; moves &= moves - 1, count++) {
+            int square = Long.numberOfTrailingZeros(moves);
+            scores[count] = (SQUARE_PRIOR[square] << 7) + 64 - square;
+            squares[count] = square;
+        }
+        return count;
+    }
+
+    /**
+     * rotate
+     * Sorts all the moves of the ply and rotates them, so that the move at the given offset comes first.
+     * The moves are then read with get() instead of next().
+     * @param ply, count, offset
+     **/
+    public void rotate(int ply, int count, int offset) {
+        if (count == 0)
+            return;
+
+        for (int i = 0; i < count; i++)
+            next(ply, i, count);
+
+        // In place, by three reversals
+        int[] squares = this.squares[ply];
+        offset %= count;
+        reverse(squares, 0, offset);
+        reverse(squares, offset, count);
+        reverse(squares, 0, count);
+    }
+
+    private static void reverse(int[] values, int from, int to) {
+        for (int i = from, j = to - 1; i < j; i++, j--) {
+            int value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+    }
+
+    public int get(int ply, int index) {
+        return this.squares[ply][index];
+    }
+
+    /**
+     * cutoff
+     * Records that the given move caused a cutoff.
+     * @param square, ply, color, depth remaining depth of the node, index position of the move in the ordering
+     **/
+    public void cutoff(int square, int ply, int color, int depth, int index) {
+        this.cutoffs++;
+        if (index == 0)
+            this.firstMoveCutoffs++;
+
+        int[] killer = this.killers[ply];
+        if (killer[0] != square) {
+            killer[1] = killer[0];
+            killer[0] = square;
+        }
+
+        int[] history = this.history[index(color)];
+        history[square] += depth * depth;
+        if (history[square] >= HISTORY_LIMIT)
+            for (int i = 0; i < 64; i++)
+                history[i] >>= 1;
+    }
+
+    public long getCutoffs() {
+        return this.cutoffs;
+    }
+
+    public long getFirstMoveCutoffs() {
+        return this.firstMoveCutoffs;
+    }
+
+    /**
+     * getFirstMoveCutoffRate
+     * @return the share of cutoffs that happened on the first move tried, 0 if there were none
+     **/
+    public double getFirstMoveCutoffRate() {
+        return this.cutoffs == 0 ? 0 : (double) this.firstMoveCutoffs / this.cutoffs;
+    }
+
+    private static int index(int color) {
+        return color == Board.B ? 0 : 1;
+    }
+}
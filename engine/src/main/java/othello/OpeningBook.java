@@ -0,0 +1,269 @@
+package othello;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * OpeningBook
+ *
+ * The best moves of the first plies of the game, searched deeply once and looked up instead of searched.
+ * Positions are stored from the point of view of the side to move (player and opponent discs),
+ * in the one of their 8 symmetric orientations that sorts first, so every symmetric position shares an entry.
+ * A book move is mapped back from that orientation to the real board.
+ *
+ * File format, little-endian:
+ * int magic "OTHB", int version, int entries, int 0,
+ * then the entries sorted by player and then opponent discs (unsigned):
+ * long player, long opponent, byte move, byte depth, short score.
+ * The file is memory-mapped and binary-searched, it is never read into the heap.
+ *
+ * Usage: java othello.OpeningBook [plies] [depth] [file] [threads] builds a book, see build().
+ **/
+public final class OpeningBook {
+    public static final String DEFAULT_FILE = "book.bin";
+
+    private static final int MAGIC = 0x4248544F;    // "OTHB"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int ENTRY_BYTES = 20;
+
+    private final ByteBuffer buffer;
+    private final int entries;
+
+    private OpeningBook(ByteBuffer buffer, int entries) {
+        this.buffer = buffer;
+        this.entries = entries;
+    }
+
+    /**
+     * load
+     * @param path
+     * @return the book of the file
+     * @throws IOException if the file can't be read or is not an opening book
+     **/
+    public static OpeningBook load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (channel.size() < HEADER_BYTES || buffer.getInt(0) != MAGIC)
+                throw new IOException(path + " is not an opening book");
+            if (buffer.getInt(4) != VERSION)
+                throw new IOException(path + " has version " + buffer.getInt(4) + ", expected " + VERSION);
+
+            int entries = buffer.getInt(8);
+            if (channel.size() != HEADER_BYTES + (long) entries * ENTRY_BYTES)
+                throw new IOException(path + " is truncated");
+
+            return new OpeningBook(buffer, entries);
+        }
+    }
+
+    public int size() {
+        return this.entries;
+    }
+
+    /**
+     * lookup
+     * @param position, color side to move
+     * @return the book move for the position on the real board, NO_MOVE if the position is not in the book
+     **/
+    public int lookup(BitBoard position, int color) {
+        long player = color == Board.B ? position.getBlack() : position.getWhite();
+        long opponent = color == Board.B ? position.getWhite() : position.getBlack();
+        int symmetry = canonicalSymmetry(player, opponent);
+
+        int entry = find(BitBoard.transform(player, symmetry), BitBoard.transform(opponent, symmetry));
+        if (entry < 0)
+            return BitBoard.NO_MOVE;
+
+        int square = BitBoard.inverseSquare(this.buffer.get(offset(entry) + 16), symmetry);
+        return position.isValidMove(square, color) ? square : BitBoard.NO_MOVE;
+    }
+
+    // Binary search of the sorted entries
+    private int find(long player, long opponent) {
+        int low = 0, high = this.entries - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int offset = offset(middle);
+            int compare = Long.compareUnsigned(this.buffer.getLong(offset), player);
+            if (compare == 0)
+                compare = Long.compareUnsigned(this.buffer.getLong(offset + 8), opponent);
+
+            if (compare < 0)
+                low = middle + 1;
+            else if (compare > 0)
+                high = middle - 1;
+            else
+                return middle;
+        }
+        return -1;
+    }
+
+    private static int offset(int entry) {
+        return HEADER_BYTES + entry * ENTRY_BYTES;
+    }
+
+    /**
+     * canonicalSymmetry
+     * @param player, opponent
+     * @return the symmetry that brings the position to the orientation that sorts first
+     **/
+    static int canonicalSymmetry(long player, long opponent) {
+        int best = 0;
+        long bestPlayer = player, bestOpponent = opponent;
+        for (int symmetry = 1; symmetry < BitBoard.SYMMETRIES; symmetry++) {
+            long p = BitBoard.transform(player, symmetry);
+            long o = BitBoard.transform(opponent, symmetry);
+            int compare = Long.compareUnsigned(p, bestPlayer);
+            if (compare < 0 || (compare == 0 && Long.compareUnsigned(o, bestOpponent) < 0)) {
+                best = symmetry;
+                bestPlayer = p;
+                bestOpponent = o;
+            }
+        }
+        return best;
+    }
+
+
+    /* Building */
+
+    private static final class Entry {
+        final long player;
+        final long opponent;
+        int move;
+        int score;
+
+        Entry(long player, long opponent) {
+            this.player = player;
+            this.opponent = opponent;
+        }
+    }
+
+    /**
+     * build
+     * Collects every position of the first plies of the game up to symmetry and searches each one
+     * to the given depth, the positions spread over the given number of threads.
+     * Every thread has its own single-threaded PlayerAB.
+     * @param path, plies number of plies covered by the book, depth, threads
+     * @return the number of entries written
+     * @throws IOException
+     **/
+    public static int build(Path path, int plies, int depth, int threads) throws IOException {
+        List<Entry> entries = expand(plies);
+
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            workers.add(pool.submit(() -> {
+                PlayerAB player = new PlayerAB(depth, Board.B, true);
+                player.setHashSize(16);
+                player.setEndgameEmpties(0);
+                for (int index; (index = next.getAndIncrement()) < entries.size(); ) {
+                    Entry entry = entries.get(index);
+                    // The player to move plays black, the search does not depend on the colors
+                    Move move = player.move(new Board(new BitBoard(entry.player, entry.opponent, Board.W)));
+                    entry.move = move.getRow() * 8 + move.getCol();
+                    entry.score = move.getValue();
+                }
+            }));
+        }
+        try {
+            for (Future<?> worker : workers)
+                worker.get();
+        } catch (Exception e) {
+            throw new IOException("Book search failed", e);
+        } finally {
+            pool.shutdown();
+        }
+
+        write(path, entries, depth);
+        return entries.size();
+    }
+
+    // The canonical positions after 0 to plies - 1 moves, where the side to move has a move
+    private static List<Entry> expand(int plies) {
+        List<Entry> entries = new ArrayList<>();
+        Set<List<Long>> seen = new HashSet<>();
+        List<long[]> level = new ArrayList<>();
+        level.add(new long[] {new BitBoard().getBlack(), new BitBoard().getWhite()});
+
+        for (int ply = 0; ply < plies; ply++) {
+            List<long[]> nextLevel = new ArrayList<>();
+            for (long[] position : level) {
+                long player = position[0], opponent = position[1];
+                long moves = BitBoard.moves(player, opponent);
+                if (moves == 0) {
+                    // Pass, unless the game is over
+                    if (BitBoard.moves(opponent, player) != 0)
+                        nextLevel.add(new long[] {opponent, player});
+                    continue;
+                }
+
+                int symmetry = canonicalSymmetry(player, opponent);
+                long canonicalPlayer = BitBoard.transform(player, symmetry);
+                long canonicalOpponent = BitBoard.transform(opponent, symmetry);
+                if (!seen.add(Arrays.asList(canonicalPlayer, canonicalOpponent)))
+                    continue;
+                entries.add(new Entry(canonicalPlayer, canonicalOpponent));
+
+                for (; moves != 0; moves &= moves - 1) {
+                    int square = Long.numberOfTrailingZeros(moves);
+                    long flipped = BitBoard.flips(square, player, opponent);
+                    nextLevel.add(new long[] {opponent & ~flipped, player | flipped | (1L << square)});
+                }
+            }
+            level = nextLevel;
+        }
+        return entries;
+    }
+
+    private static void write(Path path, List<Entry> entries, int depth) throws IOException {
+        entries.sort(Comparator.<Entry>comparingLong(entry -> entry.player ^ Long.MIN_VALUE)
+                .thenComparingLong(entry -> entry.opponent ^ Long.MIN_VALUE));
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + entries.size() * ENTRY_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(entries.size()).putInt(0);
+        for (Entry entry : entries) {
+            buffer.putLong(entry.player).putLong(entry.opponent);
+            buffer.put((byte) entry.move).put((byte) depth);
+            buffer.putShort((short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, entry.score)));
+        }
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int plies = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        Path path = Paths.get(args.length > 2 ? args[2] : DEFAULT_FILE);
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        long start = System.nanoTime();
+        int entries = build(path, plies, depth, threads);
+        System.out.printf("Wrote %d positions of the first %d plies, searched to depth %d, to %s in %.1f s%n",
+                entries, plies, depth, path, (System.nanoTime() - start) / 1e9);
+    }
+}
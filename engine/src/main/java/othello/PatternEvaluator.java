@@ -0,0 +1,191 @@
+package othello;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * PatternEvaluator
+ *
+ * Evaluates a position as the sum of learned weights of the disc patterns on lines and corners:
+ * the edges, the 3x3 corners, the 2x5 corners and the diagonals of length 4 to 8.
+ * Each pattern is read as a base-3 number (empty 0, black 1, white 2) that indexes its weight table,
+ * and the tables are staged by the number of discs on the board (see PatternWeights).
+ * All the symmetric copies of a pattern share the same table.
+ *
+ * The pattern indices are updated with every move the search makes and takes back,
+ * instead of being read off the board at every leaf.
+ **/
+public class PatternEvaluator implements Evaluator {
+    public static final int EDGE = 0;
+    public static final int CORNER_3X3 = 1;
+    public static final int CORNER_2X5 = 2;
+    public static final int DIAGONAL_8 = 3;
+    public static final int DIAGONAL_7 = 4;
+    public static final int DIAGONAL_6 = 5;
+    public static final int DIAGONAL_5 = 6;
+    public static final int DIAGONAL_4 = 7;
+
+    // The squares of one copy of every pattern type as {row, col}, in the order of their base-3 digits
+    private static final int[][][] PATTERNS = {
+            {{0, 0}, {0, 1}, {0, 2}, {0, 3}, {0, 4}, {0, 5}, {0, 6}, {0, 7}},
+            {{0, 0}, {0, 1}, {0, 2}, {1, 0}, {1, 1}, {1, 2}, {2, 0}, {2, 1}, {2, 2}},
+            {{0, 0}, {0, 1}, {0, 2}, {0, 3}, {0, 4}, {1, 0}, {1, 1}, {1, 2}, {1, 3}, {1, 4}},
+            {{0, 0}, {1, 1}, {2, 2}, {3, 3}, {4, 4}, {5, 5}, {6, 6}, {7, 7}},
+            {{0, 1}, {1, 2}, {2, 3}, {3, 4}, {4, 5}, {5, 6}, {6, 7}},
+            {{0, 2}, {1, 3}, {2, 4}, {3, 5}, {4, 6}, {5, 7}},
+            {{0, 3}, {1, 4}, {2, 5}, {3, 6}, {4, 7}},
+            {{0, 4}, {1, 5}, {2, 6}, {3, 7}}
+    };
+
+    static final int TYPES = PATTERNS.length;
+    static final int[] TYPE_SIZES = new int[TYPES];     // 3^squares
+    static final int[] TYPE_OFFSETS = new int[TYPES];   // Start of every type's table in a stage
+    static final int TABLE_SIZE;                        // Weights of one stage
+
+    // Every distinct symmetric copy of a pattern is a feature
+    static final int FEATURES;
+    static final int[] FEATURE_TYPES;
+    static final int[][] FEATURE_SQUARES;
+
+    // For every square, the features it is part of and the value of its digit in each
+    private static final int[][] SQUARE_FEATURES = new int[64][];
+    private static final int[][] SQUARE_POWERS = new int[64][];
+
+    static {
+        int tableSize = 0;
+        for (int type = 0; type < TYPES; type++) {
+            TYPE_SIZES[type] = power3(PATTERNS[type].length);
+            TYPE_OFFSETS[type] = tableSize;
+            tableSize += TYPE_SIZES[type];
+        }
+        TABLE_SIZE = tableSize;
+
+        // The symmetries of the board, repeated square sets (like the mirrored edge) are kept once
+        List<int[]> squares = new ArrayList<>();
+        List<Integer> types = new ArrayList<>();
+        for (int type = 0; type < TYPES; type++) {
+            Set<Long> seen = new HashSet<>();
+            for (int symmetry = 0; symmetry < BitBoard.SYMMETRIES; symmetry++) {
+                int[] feature = new int[PATTERNS[type].length];
+                long mask = 0;
+                for (int i = 0; i < feature.length; i++) {
+                    feature[i] = BitBoard.transformSquare(PATTERNS[type][i][0] * 8 + PATTERNS[type][i][1], symmetry);
+                    mask |= 1L << feature[i];
+                }
+                if (seen.add(mask)) {
+                    squares.add(feature);
+                    types.add(type);
+                }
+            }
+        }
+        FEATURES = squares.size();
+        FEATURE_SQUARES = squares.toArray(new int[0][]);
+        FEATURE_TYPES = new int[FEATURES];
+        for (int feature = 0; feature < FEATURES; feature++)
+            FEATURE_TYPES[feature] = types.get(feature);
+
+        int[] counts = new int[64];
+        for (int[] feature : FEATURE_SQUARES)
+            for (int square : feature)
+                counts[square]++;
+        for (int square = 0; square < 64; square++) {
+            SQUARE_FEATURES[square] = new int[counts[square]];
+            SQUARE_POWERS[square] = new int[counts[square]];
+            counts[square] = 0;
+        }
+        for (int feature = 0; feature < FEATURES; feature++) {
+            int[] featureSquares = FEATURE_SQUARES[feature];
+            for (int i = 0; i < featureSquares.length; i++) {
+                int square = featureSquares[i];
+                SQUARE_FEATURES[square][counts[square]] = feature;
+                SQUARE_POWERS[square][counts[square]] = power3(i);
+                counts[square]++;
+            }
+        }
+    }
+
+    private final PatternWeights weights;
+    private final int[] indices = new int[FEATURES];
+
+    /**
+     * PatternEvaluator
+     * @param weights the weight tables, shared read-only by all the copies of the evaluator
+     **/
+    public PatternEvaluator(PatternWeights weights) {
+        this.weights = weights;
+    }
+
+    @Override
+    public int evaluate(BitBoard board) {
+        int stage = this.weights.stageOffset(board.getBlackDiscs() + board.getWhiteDiscs());
+        int score = 0;
+        for (int feature = 0; feature < FEATURES; feature++)
+            score += this.weights.get(stage + TYPE_OFFSETS[FEATURE_TYPES[feature]] + this.indices[feature]);
+        return score;
+    }
+
+    @Override
+    public void setPosition(BitBoard board) {
+        indices(board.getBlack(), board.getWhite(), this.indices);
+    }
+
+    /**
+     * makeMove
+     * The placed disc adds its digit to every pattern it is in,
+     * a flipped disc changes its digit from black (1) to white (2) or back.
+     **/
+    @Override
+    public void makeMove(int square, long flipped, int color) {
+        update(square, color == Board.B ? 1 : 2);
+        flip(flipped, color == Board.B ? -1 : 1);
+    }
+
+    @Override
+    public void undoMove(int square, long flipped, int color) {
+        update(square, color == Board.B ? -1 : -2);
+        flip(flipped, color == Board.B ? 1 : -1);
+    }
+
+    @Override
+    public Evaluator copy() {
+        return new PatternEvaluator(this.weights);
+    }
+
+    private void update(int square, int digit) {
+        int[] features = SQUARE_FEATURES[square];
+        int[] powers = SQUARE_POWERS[square];
+        for (int i = 0; i < features.length; i++)
+            this.indices[features[i]] += digit * powers[i];
+    }
+
+    private void flip(long flipped, int digit) {
+        for (; flipped != 0; flipped &= flipped - 1)
+            update(Long.numberOfTrailingZeros(flipped), digit);
+    }
+
+    /**
+     * indices
+     * Reads the index of every feature off the discs.
+     * @param black, white, indices filled with the index of every feature
+     **/
+    static void indices(long black, long white, int[] indices) {
+        for (int feature = 0; feature < FEATURES; feature++) {
+            int[] squares = FEATURE_SQUARES[feature];
+            int index = 0;
+            for (int i = squares.length - 1; i >= 0; i--) {
+                long bit = 1L << squares[i];
+                index = index * 3 + ((black & bit) != 0 ? 1 : (white & bit) != 0 ? 2 : 0);
+            }
+            indices[feature] = index;
+        }
+    }
+
+    private static int power3(int exponent) {
+        int power = 1;
+        for (int i = 0; i < exponent; i++)
+            power *= 3;
+        return power;
+    }
+}
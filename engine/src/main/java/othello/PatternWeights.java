@@ -0,0 +1,176 @@
+package othello;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * PatternWeights
+ *
+ * The weight tables of PatternEvaluator, memory-mapped read-only from a weights file
+ * and shared by every thread that evaluates with them.
+ * The game is split into stages by the number of discs on the board, each with its own tables.
+ *
+ * File format, little-endian:
+ * int magic "OTHP", int version, int stages, int weights per stage (PatternEvaluator.TABLE_SIZE),
+ * then the weights of every stage as 16-bit ints: the table of every pattern type in order,
+ * each indexed by the base-3 pattern index.
+ *
+ * Usage: java othello.PatternWeights [file] [stages] writes seed weights, see seed().
+ **/
+public final class PatternWeights {
+    public static final String DEFAULT_FILE = "patterns.bin";
+    public static final int DEFAULT_STAGES = 12;
+
+    private static final int MAGIC = 0x5048544F;    // "OTHP"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+
+    private final ByteBuffer buffer;
+    private final int stages;
+
+    private PatternWeights(ByteBuffer buffer, int stages) {
+        this.buffer = buffer;
+        this.stages = stages;
+    }
+
+    /**
+     * load
+     * Maps the weights file into memory. The file is read by the operating system as the weights are used.
+     * @param path
+     * @return the weights of the file
+     * @throws IOException if the file can't be read or is not a weights file for the current patterns
+     **/
+    public static PatternWeights load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (channel.size() < HEADER_BYTES || buffer.getInt(0) != MAGIC)
+                throw new IOException(path + " is not a pattern weights file");
+            if (buffer.getInt(4) != VERSION)
+                throw new IOException(path + " has version " + buffer.getInt(4) + ", expected " + VERSION);
+
+            int stages = buffer.getInt(8);
+            if (stages < 1 || buffer.getInt(12) != PatternEvaluator.TABLE_SIZE
+                    || channel.size() != HEADER_BYTES + 2L * stages * PatternEvaluator.TABLE_SIZE)
+                throw new IOException(path + " does not match the patterns of PatternEvaluator");
+
+            return new PatternWeights(buffer, stages);
+        }
+    }
+
+    /**
+     * write
+     * @param path
+     * @param weights the weights of every stage, PatternEvaluator.TABLE_SIZE each
+     * @throws IOException
+     **/
+    public static void write(Path path, short[][] weights) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + 2 * weights.length * PatternEvaluator.TABLE_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(weights.length).putInt(PatternEvaluator.TABLE_SIZE);
+        for (short[] stage : weights)
+            for (short weight : stage)
+                buffer.putShort(weight);
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+        }
+    }
+
+    public int getStages() {
+        return this.stages;
+    }
+
+    /**
+     * stage
+     * @param discs number of discs on the board, 4 to 64
+     * @return the stage of the game
+     **/
+    public int stage(int discs) {
+        return (discs - 4) * this.stages / 61;
+    }
+
+    /**
+     * stageOffset
+     * @param discs
+     * @return the index of the first weight of the stage of the given number of discs
+     **/
+    int stageOffset(int discs) {
+        return stage(discs) * PatternEvaluator.TABLE_SIZE;
+    }
+
+    /**
+     * get
+     * @param index stage offset + type offset + pattern index
+     * @return the weight
+     **/
+    int get(int index) {
+        return this.buffer.getShort(HEADER_BYTES + 2 * index);
+    }
+
+    /**
+     * copy
+     * @return the weights of every stage, to be changed and written to a new file
+     **/
+    public short[][] copy() {
+        short[][] weights = new short[this.stages][PatternEvaluator.TABLE_SIZE];
+        for (int stage = 0; stage < this.stages; stage++)
+            for (int i = 0; i < PatternEvaluator.TABLE_SIZE; i++)
+                weights[stage][i] = (short) get(stage * PatternEvaluator.TABLE_SIZE + i);
+        return weights;
+    }
+
+    /**
+     * seed
+     * Weights that add up to the positional weights of BitBoard.evaluate: every square's weight
+     * is split evenly among the patterns it is in. A starting point for training, the same in every stage.
+     * @param stages
+     * @return the weights of every stage
+     **/
+    static short[][] seed(int stages) {
+        int[] coverage = new int[64];
+        for (int[] squares : PatternEvaluator.FEATURE_SQUARES)
+            for (int square : squares)
+                coverage[square]++;
+
+        short[] table = new short[PatternEvaluator.TABLE_SIZE];
+        for (int feature = 0; feature < PatternEvaluator.FEATURES; feature++) {
+            int type = PatternEvaluator.FEATURE_TYPES[feature];
+            // The first copy of a type stands for all of them, symmetric squares weigh the same
+            if (feature > 0 && PatternEvaluator.FEATURE_TYPES[feature - 1] == type)
+                continue;
+
+            int[] squares = PatternEvaluator.FEATURE_SQUARES[feature];
+            for (int index = 0; index < PatternEvaluator.TYPE_SIZES[type]; index++) {
+                double weight = 0;
+                for (int i = 0, digits = index; i < squares.length; i++, digits /= 3) {
+                    int sign = digits % 3 == 1 ? 1 : digits % 3 == 2 ? -1 : 0;
+                    weight += sign * (double) BitBoard.squareWeight(squares[i]) / coverage[squares[i]];
+                }
+                table[PatternEvaluator.TYPE_OFFSETS[type] + index] = (short) Math.round(weight);
+            }
+        }
+
+        short[][] weights = new short[stages][];
+        for (int stage = 0; stage < stages; stage++)
+            weights[stage] = table.clone();
+        return weights;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path path = Paths.get(args.length > 0 ? args[0] : DEFAULT_FILE);
+        int stages = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_STAGES;
+
+        write(path, seed(stages));
+        System.out.println("Wrote seed weights for " + stages + " stages to " + path);
+    }
+}
@@ -0,0 +1,160 @@
+package othello;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Perft
+ *
+ * Counts the leaf nodes of the game tree to a fixed depth, to check the move generator against known counts
+ * and to measure its raw speed.
+ * A pass is a ply of its own. A finished game is a leaf, whatever depth is left.
+ * The last ply is counted in bulk: the number of legal moves, without playing them.
+ *
+ * Usage: java othello.Perft [depth] [-divide] [-threads n] [-verify] [position]
+ * -divide prints the count of every root move, -threads splits the root moves over a thread pool,
+ * -verify checks the counts from the start position at every depth up to the given one.
+ * The position is in the text format of BitBoard.parse, the start position by default.
+ **/
+public final class Perft {
+    // Known counts from the start position, by depth
+    static final long[] START_COUNTS = {
+            1, 4, 12, 56, 244, 1396, 8200, 55092, 390216, 3005288, 24571284, 212258800, 1939886636L
+    };
+
+    private Perft() {
+    }
+
+    /**
+     * perft
+     * @param player discs of the side to move, opponent, depth
+     * @return the number of leaf nodes at the given depth
+     **/
+    public static long perft(long player, long opponent, int depth) {
+        if (depth == 0)
+            return 1;
+
+        long moves = BitBoard.moves(player, opponent);
+        if (moves == 0) {
+            if (BitBoard.moves(opponent, player) == 0)
+                return 1;
+            return perft(opponent, player, depth - 1);
+        }
+        if (depth == 1)
+            return Long.bitCount(moves);
+
+        long nodes = 0;
+        for (; moves != 0; moves &= moves - 1) {
+            int square = Long.numberOfTrailingZeros(moves);
+            long flipped = BitBoard.flips(square, player, opponent);
+            nodes += perft(opponent & ~flipped, player | flipped | (1L << square), depth - 1);
+        }
+        return nodes;
+    }
+
+    /**
+     * divide
+     * Counts the leaves under every root move, the root moves split over the given number of threads.
+     * A finished game is a single leaf, like in perft().
+     * @param player, opponent, depth at least 1, threads
+     * @return the count of every root move as {square, nodes}, square BitBoard.PASS for a pass,
+     *         or {BitBoard.NO_MOVE, 1} if the game is over
+     **/
+    public static List<long[]> divide(long player, long opponent, int depth, int threads) {
+        List<long[]> roots = new ArrayList<>();   // {square, next player, next opponent}
+        long moves = BitBoard.moves(player, opponent);
+        if (moves == 0) {
+            if (BitBoard.moves(opponent, player) == 0)
+                return List.of(new long[] {BitBoard.NO_MOVE, 1});
+            roots.add(new long[] {BitBoard.PASS, opponent, player});
+        }
+        for (; moves != 0; moves &= moves - 1) {
+            int square = Long.numberOfTrailingZeros(moves);
+            long flipped = BitBoard.flips(square, player, opponent);
+            roots.add(new long[] {square, opponent & ~flipped, player | flipped | (1L << square)});
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            List<Future<Long>> counts = new ArrayList<>();
+            for (long[] root : roots)
+                counts.add(pool.submit(() -> perft(root[1], root[2], depth - 1)));
+
+            List<long[]> divide = new ArrayList<>();
+            for (int i = 0; i < roots.size(); i++)
+                divide.add(new long[] {roots.get(i)[0], counts.get(i).get()});
+            return divide;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Perft interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Perft failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public static void main(String[] args) {
+        int depth = 8;
+        int threads = 1;
+        boolean divide = false, verify = false;
+        BitBoard position = new BitBoard();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-divide" -> divide = true;
+                case "-verify" -> verify = true;
+                case "-threads" -> threads = Integer.parseInt(args[++i]);
+                default -> {
+                    if (args[i].matches("\\d+"))
+                        depth = Integer.parseInt(args[i]);
+                    else
+                        position = BitBoard.parse(args[i]);
+                }
+            }
+        }
+
+        int color = -position.getLastPlayer();
+        long player = color == Board.B ? position.getBlack() : position.getWhite();
+        long opponent = color == Board.B ? position.getWhite() : position.getBlack();
+
+        if (verify) {
+            boolean ok = true;
+            for (int d = 1; d <= Math.min(depth, START_COUNTS.length - 1); d++)
+                ok &= run(new BitBoard().getBlack(), new BitBoard().getWhite(), d, threads, false, START_COUNTS[d]);
+            System.exit(ok ? 0 : 1);
+        }
+        run(player, opponent, depth, threads, divide, -1);
+    }
+
+    // Counts and prints one depth, false if the count is not the expected one (-1 for no check)
+    private static boolean run(long player, long opponent, int depth, int threads, boolean divide, long expected) {
+        long start = System.nanoTime();
+        long nodes = 0;
+        if (depth == 0) {
+            nodes = 1;
+        } else {
+            for (long[] root : divide(player, opponent, depth, threads)) {
+                nodes += root[1];
+                if (divide)
+                    System.out.printf("%-4s %d%n", root[0] == BitBoard.PASS ? "pass"
+                            : root[0] == BitBoard.NO_MOVE ? "end" : squareName((int) root[0]), root[1]);
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        boolean ok = expected < 0 || nodes == expected;
+        System.out.printf("perft(%d) = %d  %.3f s  %.1f Mnodes/s%s%n", depth, nodes, seconds,
+                nodes / Math.max(seconds, 1e-9) / 1e6, ok ? "" : "  MISMATCH, expected " + expected);
+        return ok;
+    }
+
+    // Row and column from 1, like the moves Main prints
+    private static String squareName(int square) {
+        return (BitBoard.row(square) + 1) + "," + (BitBoard.col(square) + 1);
+    }
+}
@@ -0,0 +1,727 @@
+package othello;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * PlayerAB Class
+ *
+ * Allows for the player or AI to make a move.
+ * Takes input from the human player and checks its validity.
+ * Calculates the best move for the AI using the minimax algorithm with a-b pruning,
+ * deepened one ply at a time until the depth, time or node budget runs out.
+ * With more than one thread, helper threads search the same position (Lazy SMP) and share
+ * their results with the main thread through the transposition table.
+ * Once few enough squares are empty, the EndgameSolver plays the rest of the game perfectly.
+ * While the opponent thinks, the AI can ponder: search the position after the reply it expects.
+ * Class taken and adjusted from the labs.
+ **/
+public class PlayerAB implements AutoCloseable {
+    public static final int DEFAULT_HASH_MB = 64;
+    public static final int MAX_DEPTH = 64;
+    
+    // A root score that drops by more than this between iterations gets extra time
+    private static final int UNSTABLE_SCORE = 30;
+    private static final int EMERGENCY_FACTOR = 2;
+    
+    // Half width of the first aspiration window, windows wider than the maximum become infinite
+    private static final int ASPIRATION_WINDOW = 25;
+    private static final int MAX_ASPIRATION_WINDOW = 800;
+    
+    public static final int DEFAULT_ENDGAME_EMPTIES = 18;
+    
+    private final int color;
+    private final boolean isAI;
+    protected final int maxDepth;
+    private long moveTime;
+    private long nodeBudget;
+    private int hashSizeMB = DEFAULT_HASH_MB;
+    private int threads = 1;
+    private boolean deterministic;
+    private Evaluator evaluator = Evaluator.DEFAULT;
+    private int endgameEmpties = DEFAULT_ENDGAME_EMPTIES;
+    private OpeningBook openingBook;
+    private ProbCut probCut;
+    private EndgameSolver endgameSolver;
+    private TranspositionTable endgameTable;
+    private TranspositionTable table;
+    private boolean sharedTable;
+    private Searcher[] searchers;
+    private ExecutorService helperPool;
+    
+    // Search state of the current move, the deadlines change under the lock when a ponder search is hit
+    private final BitBoard root = new BitBoard();
+    private volatile long searchStart;
+    private volatile long deadline = Long.MAX_VALUE;
+    private volatile boolean stop;
+    private int[] principalVariation = new int[0];
+    private long endgameNodes;
+    private String source;
+    private final long[] iterationNodes = new long[MAX_DEPTH];
+    private final long[] iterationNanos = new long[MAX_DEPTH];
+    private int iterations;
+    private SearchStats stats;
+    private PrintStream statsLog;
+    
+    // Pondering: the search of the position after the expected reply, on the opponent's time
+    private ExecutorService ponderThread;
+    private Future<Move> ponderSearch;
+    private BitBoard ponderPosition;
+    private long ponderStart;
+    private volatile boolean pondering;
+    
+    public PlayerAB(int maxDepth, int color, boolean isAI) {
+        this.maxDepth = maxDepth;
+        this.color = color;
+        this.isAI = isAI;
+    }
+    
+    /**
+     * setHashSize
+     * Sets the size of the transposition table. Takes effect on the next search.
+     * @param sizeMB
+     **/
+    public void setHashSize(int sizeMB) {
+        this.hashSizeMB = sizeMB;
+        this.table = null;
+        this.sharedTable = false;
+    }
+    
+    /**
+     * setTranspositionTable
+     * Searches with the given table, e.g. one shared by many players. Takes effect on the next search.
+     * The table is used without locks, so the players may search at the same time.
+     * The player doesn't age a table it was given, its owner does (see TranspositionTable.newSearch).
+     * @param table
+     **/
+    void setTranspositionTable(TranspositionTable table) {
+        this.table = table;
+        this.sharedTable = true;
+        this.searchers = null;
+    }
+    
+    /**
+     * setEndgameTable
+     * Solves endgames with the given table, e.g. one shared by many players, instead of one of the player's own.
+     * Takes effect on the next move. The player doesn't age the table, its owner does.
+     * @param table
+     **/
+    void setEndgameTable(TranspositionTable table) {
+        this.endgameTable = table;
+        this.endgameSolver = null;
+    }
+    
+    /**
+     * clearHash
+     * Forgets the positions searched for the earlier moves, as if the player was new.
+     **/
+    public void clearHash() {
+        if(this.table != null)
+            this.table.clear();
+    }
+    
+    /**
+     * setThreads
+     * Sets the number of threads searching every move. Takes effect on the next search.
+     * @param threads
+     **/
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+        this.searchers = null;
+    }
+    
+    /**
+     * setDeterministic
+     * Makes a fixed-depth search return the same move as the single-threaded deterministic search,
+     * however many threads run it: table cutoffs need an entry of exactly the remaining depth,
+     * and the root moves are tried in a fixed order. Slower than the normal search.
+     * @param deterministic
+     **/
+    public void setDeterministic(boolean deterministic) {
+        this.deterministic = deterministic;
+        this.searchers = null;
+    }
+    
+    /**
+     * setMoveTime
+     * Sets the wall-clock budget of every move. 0 searches to maxDepth however long it takes.
+     * @param millis
+     **/
+    public void setMoveTime(long millis) {
+        this.moveTime = millis;
+    }
+    
+    /**
+     * setNodeBudget
+     * Sets the number of nodes every move may search. 0 for no limit.
+     * @param nodes
+     **/
+    public void setNodeBudget(long nodes) {
+        this.nodeBudget = nodes;
+    }
+    
+    /**
+     * setEvaluator
+     * Sets the evaluation of the search leaves. Takes effect on the next search.
+     * @param evaluator
+     **/
+    public void setEvaluator(Evaluator evaluator) {
+        this.evaluator = evaluator;
+        this.searchers = null;
+    }
+    
+    /**
+     * setOpeningBook
+     * Sets the book that the AI plays from before it searches. null for none.
+     * @param book
+     **/
+    public void setOpeningBook(OpeningBook book) {
+        this.openingBook = book;
+    }
+    
+    /**
+     * setProbCut
+     * Sets the parameters of the Multi-ProbCut selective search, null searches every node in full.
+     * Takes effect on the next search.
+     * @param probCut
+     **/
+    public void setProbCut(ProbCut probCut) {
+        this.probCut = probCut;
+        this.searchers = null;
+    }
+    
+    /**
+     * setEndgameEmpties
+     * Sets the number of empty squares at or below which the endgame solver takes over. 0 never solves.
+     * @param empties
+     **/
+    public void setEndgameEmpties(int empties) {
+        this.endgameEmpties = empties;
+    }
+    
+    /**
+     * setStatsLog
+     * Prints the SearchStats of every move on one line to the given stream. null for none.
+     * @param log
+     **/
+    public void setStatsLog(PrintStream log) {
+        this.statsLog = log;
+    }
+    
+    /**
+     * stop
+     * Cancels the running search. It returns the best move of the deepest completed iteration.
+     **/
+    public synchronized void stop() {
+        this.stop = true;
+        if(this.endgameSolver != null) {
+            this.endgameSolver.stop();
+            // solve() clears the stop flag, this also stops a solve that is just starting
+            this.endgameSolver.setDeadline(Long.MIN_VALUE);
+        }
+    }
+    
+    /**
+     * getPrincipalVariation
+     * @return the expected line of play from the last move's search, as squares (row * 8 + col), BitBoard.PASS for a pass
+     **/
+    public int[] getPrincipalVariation() {
+        return this.principalVariation.clone();
+    }
+    
+    boolean isStopped() {
+        return this.stop;
+    }
+    
+    /**
+     * getNodes
+     * @return the nodes searched for the last move by all threads
+     **/
+    public long getNodes() {
+        long nodes = this.endgameNodes;
+        if(this.searchers != null)
+            for(Searcher searcher : this.searchers)
+                nodes += searcher.nodes;
+        return nodes;
+    }
+    
+    /**
+     * getStats
+     * @return what the search of the last move did, null before the first move
+     **/
+    public SearchStats getStats() {
+        return this.stats;
+    }
+    
+    /**
+     * getFirstMoveCutoffRate
+     * @return the share of cutoffs of the last move's search (main thread) that came from the first move tried
+     **/
+    public double getFirstMoveCutoffRate() {
+        return this.searchers == null ? 0 : this.searchers[0].getOrderer().getFirstMoveCutoffRate();
+    }
+    
+    public boolean isAI() {
+        return isAI;
+    }
+    
+    public Move move(Board board) {
+        if (isAI) {
+            return MiniMax(board);
+        } else {
+            return pickMove(board);
+        }
+    }
+    
+    private Move bookMove(Board board) {
+        if(this.openingBook == null)
+            return null;
+        
+        int square = this.openingBook.lookup(board.getBitBoard(), this.color);
+        if(square == BitBoard.NO_MOVE)
+            return null;
+        
+        this.principalVariation = new int[] {square};
+        this.source = SearchStats.BOOK;
+        return new Move(BitBoard.row(square), BitBoard.col(square));
+    }
+    
+    /**
+     * ponder
+     * Starts searching the position after the opponent's reply that the last search expected, in the background,
+     * so that the AI thinks on the opponent's time. If the opponent plays that reply, the next move takes over
+     * the running search with everything it found so far. Otherwise the search is dropped, the next move
+     * searches from scratch but still finds the transposition table warm.
+     * Does nothing without an expected reply, e.g. after a move from the book or the endgame solver.
+     * @param board the position after the AI's move, the opponent to move
+     **/
+    public void ponder(Board board) {
+        stopPondering();
+        if(!this.isAI || this.principalVariation.length < 2)
+            return;
+        
+        BitBoard position = new BitBoard(board.getBitBoard());
+        int reply = this.principalVariation[1];
+        if(reply == BitBoard.PASS || (position.legalMoves(-this.color) & 1L << reply) == 0)
+            return;
+        position.makeMove(reply, -this.color);
+        if(position.legalMoves(this.color) == 0)
+            return;
+        if(this.openingBook != null && this.openingBook.lookup(position, this.color) != BitBoard.NO_MOVE)
+            return;
+        
+        if(this.ponderThread == null) {
+            this.ponderThread = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "PlayerAB ponder");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        
+        resetStats();
+        this.stop = false;
+        this.pondering = true;
+        this.ponderPosition = position;
+        this.ponderStart = System.nanoTime();
+        BitBoard copy = new BitBoard(position);
+        this.ponderSearch = this.ponderThread.submit(() -> search(copy));
+    }
+    
+    /**
+     * stopPondering
+     * Drops the running ponder search, if any, and waits for it to finish.
+     **/
+    public void stopPondering() {
+        if(this.ponderSearch == null)
+            return;
+        
+        stop();
+        awaitPonder();
+    }
+    
+    /**
+     * close
+     * Stops pondering and shuts down the helper and ponder threads. A player that made its last move
+     * must be closed, the idle threads of its pools never end on their own.
+     * The player can still move afterwards, it starts new threads then.
+     **/
+    @Override
+    public void close() {
+        stopPondering();
+        if(this.helperPool != null)
+            this.helperPool.shutdown();
+        if(this.ponderThread != null)
+            this.ponderThread.shutdown();
+        this.helperPool = null;
+        this.ponderThread = null;
+    }
+    
+    /**
+     * ponderHit
+     * Ends the pondering. If the opponent played the expected reply, the ponder search becomes the search
+     * of this move: it gets the move's time budget, and its result is the move.
+     * @param board
+     * @return the move of the ponder search, null if there was none or it searched another position
+     **/
+    private Move ponderHit(Board board) {
+        if(this.ponderSearch == null)
+            return null;
+        
+        BitBoard position = board.getBitBoard();
+        BitBoard expected = this.ponderPosition;
+        if(position.getBlack() != expected.getBlack() || position.getWhite() != expected.getWhite()
+                || position.getLastPlayer() != expected.getLastPlayer()) {
+            stopPondering();
+            return null;
+        }
+        
+        // The search keeps the time it pondered, so it answers at once if the opponent took longer than the budget.
+        // The endgame solver can't return a move before it is done, so it gets its full budget from now.
+        int empties = 64 - expected.getBlackDiscs() - expected.getWhiteDiscs();
+        long budget = this.moveTime * 1_000_000L;
+        synchronized(this) {
+            this.pondering = false;
+            this.searchStart = empties <= this.endgameEmpties ? System.nanoTime() : this.ponderStart;
+            if(budget > 0) {
+                this.deadline = this.searchStart + budget;
+                if(this.endgameSolver != null)
+                    this.endgameSolver.setDeadline(this.searchStart + budget / 2);
+            }
+        }
+        return awaitPonder();
+    }
+    
+    private Move awaitPonder() {
+        try {
+            return this.ponderSearch.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Ponder search failed", e.getCause());
+        } finally {
+            this.ponderSearch = null;
+            this.pondering = false;
+        }
+    }
+    
+    /**
+     * MiniMax
+     * Plays from the opening book, or searches the move and records its SearchStats.
+     * After a ponder hit, the stats cover the whole search, pondering included.
+     * @param board
+     * @return The best move for the current AI player
+     **/
+    Move MiniMax(Board board){
+        SearchStats.MoveEvent event = new SearchStats.MoveEvent();
+        event.begin();
+        long start = System.nanoTime();
+        
+        Move move = ponderHit(board);
+        if(move != null) {
+            start = this.ponderStart;
+        } else {
+            resetStats();
+            move = bookMove(board);
+            if(move == null) {
+                this.stop = false;
+                this.root.set(board.getBitBoard());
+                move = search(this.root);
+            }
+        }
+        
+        this.stats = collectStats(move, System.nanoTime() - start);
+        this.stats.commit(event);
+        if(this.statsLog != null)
+            this.statsLog.println(this.stats);
+        return move;
+    }
+    
+    // Moves from the book or the endgame solver don't run the searchers
+    private void resetStats() {
+        this.endgameNodes = 0;
+        this.iterations = 0;
+        if(this.searchers != null)
+            for(Searcher searcher : this.searchers)
+                searcher.resetStats();
+    }
+    
+    /**
+     * search
+     * Iterative deepening: searches to depth 1, 2, 3... and keeps the move of the deepest iteration
+     * that completed before the time or node budget ran out. A ponder search has no budget until it is hit.
+     * The caller clears the stop flag, so that a stop() from another thread is never lost.
+     * @param position the search's own copy of the board, every thread plays its moves on a copy of it
+     * @return The best move for the current AI player
+     **/
+    private Move search(BitBoard position){
+        // The table is kept between moves, entries of earlier moves are replaced first
+        if(this.table == null) {
+            this.table = new TranspositionTable(this.hashSizeMB);
+            this.searchers = null;
+        }
+        if(this.searchers == null)
+            createSearchers();
+        if(!this.sharedTable)
+            this.table.newSearch();
+        for(Searcher searcher : this.searchers)
+            searcher.newSearch();
+        
+        long budget = this.moveTime * 1_000_000L;
+        synchronized(this) {
+            this.searchStart = System.nanoTime();
+            this.deadline = budget > 0 && !this.pondering ? this.searchStart + budget : Long.MAX_VALUE;
+        }
+        this.source = SearchStats.SEARCH;
+        
+        Move solved = solveEndgame(position);
+        if(solved != null)
+            return solved;
+        
+        List<Future<?>> helpers = startHelpers(position);
+        Searcher main = this.searchers[0];
+        
+        int[] principalVariation = null;
+        int bestScore = 0;
+        boolean emergency = false;
+        long nodes = 0;
+        for(int depth = 1; depth <= this.maxDepth; depth++) {
+            SearchStats.IterationEvent event = new SearchStats.IterationEvent();
+            event.begin();
+            long iterationStart = System.nanoTime();
+            int score = aspirationSearch(main, position, depth, bestScore);
+            
+            // An unfinished iteration is thrown away
+            if(this.stop)
+                break;
+            
+            recordIteration(event, depth, score, getNodes() - nodes, System.nanoTime() - iterationStart);
+            nodes = getNodes();
+            
+            // An unstable root gets more time once
+            if(principalVariation != null && budget > 0 && !emergency && score - bestScore < -UNSTABLE_SCORE)
+                emergency = extendDeadline(budget * EMERGENCY_FACTOR);
+            principalVariation = main.getPrincipalVariation();
+            bestScore = score;
+            
+            // The next iteration takes longer than all the previous ones, so don't start it past half the budget
+            if(budget > 0 && !this.pondering && System.nanoTime() - this.searchStart > (this.deadline - this.searchStart) / 2)
+                break;
+        }
+        
+        this.stop = true;
+        joinHelpers(helpers);
+        
+        if(principalVariation == null || principalVariation.length == 0 || principalVariation[0] == BitBoard.PASS)
+            return firstLegalMove(position);
+        
+        this.principalVariation = principalVariation;
+        int square = principalVariation[0];
+        // Move values are from black's point of view, like Board.evaluate
+        return new Move(BitBoard.row(square), BitBoard.col(square), bestScore * this.color);
+    }
+    
+    // Gives the search more time, unless it is pondering
+    private synchronized boolean extendDeadline(long budget) {
+        if(this.pondering)
+            return false;
+        this.deadline = this.searchStart + budget;
+        return true;
+    }
+    
+    /**
+     * solveEndgame
+     * Solves the position exactly if few enough squares are empty.
+     * The solver gets half the move's budget, if it runs out the normal search plays the move in the time left.
+     * Without a budget (a fixed-depth search) it only solves what the search would see to the end anyway,
+     * so that a shallow player doesn't take seconds over its last moves.
+     * @param position
+     * @return the best move, valued by the final disc difference from black's point of view,
+     *         or null if the position was not solved
+     **/
+    private Move solveEndgame(BitBoard position) {
+        int empties = 64 - position.getBlackDiscs() - position.getWhiteDiscs();
+        if(empties > this.endgameEmpties)
+            return null;
+        long budget = this.moveTime * 1_000_000L;
+        if(budget == 0 && empties > this.maxDepth)
+            return null;
+        
+        synchronized(this) {
+            if(this.stop)
+                return null;
+            if(this.endgameSolver == null)
+                this.endgameSolver = this.endgameTable != null ? new EndgameSolver(this.endgameTable) : new EndgameSolver();
+            this.endgameSolver.setDeadline(budget > 0 && !this.pondering ? this.searchStart + budget / 2 : Long.MAX_VALUE);
+        }
+        
+        int score = this.endgameSolver.solve(position, this.color, EndgameSolver.EXACT);
+        this.endgameNodes = this.endgameSolver.getNodes();
+        int square = this.endgameSolver.getBestMove();
+        if(this.endgameSolver.isStopped() || square < 0 || square == BitBoard.PASS)
+            return null;
+        
+        this.principalVariation = new int[] {square};
+        this.source = SearchStats.ENDGAME;
+        return new Move(BitBoard.row(square), BitBoard.col(square), score * this.color);
+    }
+    
+    private void recordIteration(SearchStats.IterationEvent event, int depth, int score, long nodes, long nanos) {
+        this.iterationNodes[this.iterations] = nodes;
+        this.iterationNanos[this.iterations] = nanos;
+        this.iterations++;
+        
+        event.end();
+        if(event.shouldCommit()) {
+            event.depth = depth;
+            event.score = score;
+            event.nodes = nodes;
+            event.commit();
+        }
+    }
+    
+    // Sums the counters of all the threads
+    private SearchStats collectStats(Move move, long nanos) {
+        long evaluations = 0, cutoffs = 0, firstMoveCutoffs = 0, tableProbes = 0, tableHits = 0;
+        if(this.searchers != null) {
+            for(Searcher searcher : this.searchers) {
+                evaluations += searcher.evaluations;
+                tableProbes += searcher.tableProbes;
+                tableHits += searcher.tableHits;
+                cutoffs += searcher.getOrderer().getCutoffs();
+                firstMoveCutoffs += searcher.getOrderer().getFirstMoveCutoffs();
+            }
+        }
+        
+        int square = move.getRow() * 8 + move.getCol();
+        return new SearchStats(this.source, square, move.getValue(), nanos, getNodes(), evaluations, cutoffs,
+                firstMoveCutoffs, tableProbes, tableHits, Arrays.copyOf(this.iterationNodes, this.iterations),
+                Arrays.copyOf(this.iterationNanos, this.iterations));
+    }
+    
+    /**
+     * aspirationSearch
+     * Searches with a narrow window around the score of the previous iteration,
+     * widening it on the side that failed until the score falls inside.
+     * @param searcher, position, depth, previousScore
+     * @return the exact score of the position for the AI player
+     **/
+    private int aspirationSearch(Searcher searcher, BitBoard position, int depth, int previousScore) {
+        if(depth == 1)
+            return searcher.search(position, depth, this.color, -Searcher.INFINITY, Searcher.INFINITY);
+        
+        int delta = ASPIRATION_WINDOW;
+        int alpha = previousScore - delta;
+        int beta = previousScore + delta;
+        while(true) {
+            int score = searcher.search(position, depth, this.color, alpha, beta);
+            if(this.stop)
+                return score;
+            
+            delta *= 2;
+            if(score <= alpha)
+                alpha = delta > MAX_ASPIRATION_WINDOW ? -Searcher.INFINITY : score - delta;
+            else if(score >= beta)
+                beta = delta > MAX_ASPIRATION_WINDOW ? Searcher.INFINITY : score + delta;
+            else
+                return score;
+        }
+    }
+    
+    private void createSearchers() {
+        this.searchers = new Searcher[this.threads];
+        for(int i = 0; i < this.threads; i++) {
+            this.searchers[i] = new Searcher(this, this.table, this.evaluator.copy(), i, this.deterministic);
+            this.searchers[i].setProbCut(this.probCut);
+        }
+        
+        if(this.helperPool != null)
+            this.helperPool.shutdown();
+        this.helperPool = null;
+    }
+    
+    private List<Future<?>> startHelpers(BitBoard position) {
+        List<Future<?>> helpers = new ArrayList<>();
+        if(this.searchers.length > 1 && this.helperPool == null) {
+            this.helperPool = Executors.newFixedThreadPool(this.searchers.length - 1, runnable -> {
+                Thread thread = new Thread(runnable, "PlayerAB helper");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        for(int i = 1; i < this.searchers.length; i++) {
+            Searcher helper = this.searchers[i];
+            helpers.add(this.helperPool.submit(() -> helper.helpSearch(position, this.maxDepth, this.color)));
+        }
+        return helpers;
+    }
+    
+    private void joinHelpers(List<Future<?>> helpers) {
+        for(Future<?> helper : helpers) {
+            try {
+                helper.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Helper search failed", e.getCause());
+            }
+        }
+    }
+    
+    /**
+     * checkLimits
+     * Sets the stop flag once the time or node budget has run out.
+     * Called by the main search thread. Depth 1 always completes, so there is always a move to return.
+     * @param searchDepth depth of the running iteration
+     **/
+    void checkLimits(int searchDepth) {
+        if(searchDepth == 1)
+            return;
+        
+        if(System.nanoTime() > this.deadline || (this.nodeBudget > 0 && !this.pondering && getNodes() >= this.nodeBudget))
+            this.stop = true;
+    }
+    
+    // Without a line of its own the move has no expected reply, so pondering doesn't start from an old one
+    private Move firstLegalMove(BitBoard position) {
+        int square = Long.numberOfTrailingZeros(position.legalMoves(this.color));
+        this.principalVariation = new int[] {square};
+        return new Move(BitBoard.row(square), BitBoard.col(square));
+    }
+    
+    /**
+     * pickMove
+     * @param board
+     * @return The player's choice of move
+     **/
+    public Move pickMove(Board board) {
+        Scanner scanner = new Scanner(System.in);
+        int row = 0, col = 0;
+        boolean invalid = true;
+        
+        // Check if the move is valid
+        do {
+            try{
+                System.out.print("Give row: ");
+                row = scanner.nextInt() - 1;
+                System.out.print("Give col: ");
+                col = scanner.nextInt() - 1;
+                
+                invalid = !board.isValidMove(row, col, color);
+                if(invalid) System.out.println("Invalid move. Please try again.");
+            } catch (Exception e) {
+                System.out.println("Invalid input. Please try again.");
+                scanner.nextLine();
+            }
+        }while(invalid);
+        
+        return new Move(row, col);
+    }
+}
\ No newline at end of file
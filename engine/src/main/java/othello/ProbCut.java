@@ -0,0 +1,436 @@
+package othello;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ProbCut
+ *
+ * The parameters of Multi-ProbCut, the selective search of Searcher.
+ * The score of a deep search is predicted from the score of a shallow one by a linear regression,
+ * deep = slope * shallow + offset, with the error of the prediction normally distributed with deviation sigma.
+ * At a node of the given depth the search first runs the shallow search against the bounds the prediction needs,
+ * and if the deep search would fail high (or low) with the confidence of the threshold it cuts the node there.
+ * Every depth has one or more checks of different shallow depths, tried from the cheapest, and every stage
+ * of the game (split by the number of discs, like PatternWeights) has its own parameters.
+ *
+ * File format, text: "stages n" and "threshold t" lines, then a line "stage depth shallow slope offset sigma"
+ * for every check. Lines starting with # are comments.
+ *
+ * Usage: java othello.ProbCut [-positions n] [-depth n] [-stages n] [-threshold t] [-threads n] [-seed n]
+ *                             [-eval file] [file]
+ * calibrates the parameters for the given evaluation on positions of self-play games, see calibrate().
+ **/
+public final class ProbCut {
+    public static final String DEFAULT_FILE = "probcut.txt";
+    public static final int DEFAULT_STAGES = 4;
+    public static final double DEFAULT_THRESHOLD = 1.5;
+
+    // Shallower nodes are cheap enough to search in full
+    public static final int MIN_DEPTH = 3;
+
+    // Calibration defaults, a fit needs MIN_SAMPLES positions of its stage
+    private static final int DEFAULT_POSITIONS = 2000;
+    private static final int DEFAULT_CALIBRATION_DEPTH = 10;
+    private static final int MIN_SAMPLES = 30;
+    private static final double OUTLIER_SIGMAS = 3;
+
+    // Self-play games of the calibration: random opening plies, then a shallow player with some random moves
+    private static final int OPENING_PLIES = 8;
+    private static final int GAME_DEPTH = 2;
+    private static final double RANDOM_MOVES = 0.1;
+    private static final int SAMPLE_EVERY = 6;
+
+    // Scores past this are wins and losses, not evaluations, and are left out of the fits
+    private static final int MAX_SCORE = 5000;
+
+    private static final Check[] NONE = new Check[0];
+
+    private final int stages;
+    private final double threshold;
+    private final Check[][][] checks;    // [stage][depth], by increasing shallow depth
+
+    /**
+     * Check
+     * One prediction of the search of a depth by a shallower one.
+     **/
+    static final class Check {
+        final int shallow;
+        final double slope;
+        final double offset;
+        final double sigma;
+
+        Check(int shallow, double slope, double offset, double sigma) {
+            this.shallow = shallow;
+            this.slope = slope;
+            this.offset = offset;
+            this.sigma = sigma;
+        }
+
+        /**
+         * highBound
+         * @param beta of the deep search, threshold
+         * @return the shallow score at or above which the deep search fails high with the threshold's confidence
+         **/
+        int highBound(int beta, double threshold) {
+            return (int) Math.ceil((beta + threshold * this.sigma - this.offset) / this.slope);
+        }
+
+        /**
+         * lowBound
+         * @param alpha of the deep search, threshold
+         * @return the shallow score at or below which the deep search fails low with the threshold's confidence
+         **/
+        int lowBound(int alpha, double threshold) {
+            return (int) Math.floor((alpha - threshold * this.sigma - this.offset) / this.slope);
+        }
+    }
+
+    private ProbCut(int stages, double threshold, Check[][][] checks) {
+        this.stages = stages;
+        this.threshold = threshold;
+        this.checks = checks;
+    }
+
+    /**
+     * load
+     * @param path
+     * @return the parameters of the file
+     * @throws IOException if the file can't be read or is not a ProbCut file
+     **/
+    public static ProbCut load(Path path) throws IOException {
+        int stages = DEFAULT_STAGES;
+        double threshold = DEFAULT_THRESHOLD;
+        List<double[]> lines = new ArrayList<>();
+
+        int number = 0;
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            number++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#"))
+                continue;
+
+            String[] fields = line.split("\\s+");
+            try {
+                if (fields[0].equals("stages") && fields.length == 2)
+                    stages = Integer.parseInt(fields[1]);
+                else if (fields[0].equals("threshold") && fields.length == 2)
+                    threshold = Double.parseDouble(fields[1]);
+                else if (fields.length == 6)
+                    lines.add(new double[] {Integer.parseInt(fields[0]), Integer.parseInt(fields[1]),
+                            Integer.parseInt(fields[2]), Double.parseDouble(fields[3]),
+                            Double.parseDouble(fields[4]), Double.parseDouble(fields[5])});
+                else
+                    throw new IOException(path + ":" + number + ": expected stage depth shallow slope offset sigma");
+            } catch (NumberFormatException e) {
+                throw new IOException(path + ":" + number + ": " + e.getMessage());
+            }
+        }
+        if (stages < 1)
+            throw new IOException(path + ": needs at least one stage");
+
+        List<List<List<Check>>> checks = emptyChecks(stages);
+        for (double[] line : lines) {
+            int stage = (int) line[0], depth = (int) line[1], shallow = (int) line[2];
+            if (stage < 0 || stage >= stages || depth < MIN_DEPTH || depth > PlayerAB.MAX_DEPTH
+                    || shallow < 1 || shallow >= depth || line[3] <= 0 || line[5] < 0)
+                throw new IOException(path + ": invalid check " + (int) line[0] + " " + depth + " " + shallow);
+            checks.get(stage).get(depth).add(new Check(shallow, line[3], line[4], line[5]));
+        }
+        return new ProbCut(stages, threshold, toArrays(checks));
+    }
+
+    /**
+     * write
+     * @param path
+     * @throws IOException
+     **/
+    public void write(Path path) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("# Multi-ProbCut parameters, java othello.ProbCut calibrates them");
+        lines.add("stages " + this.stages);
+        lines.add("threshold " + this.threshold);
+        lines.add("# stage depth shallow slope offset sigma");
+        for (int stage = 0; stage < this.stages; stage++)
+            for (int depth = 0; depth <= PlayerAB.MAX_DEPTH; depth++)
+                for (Check check : this.checks[stage][depth])
+                    lines.add(String.format(Locale.ROOT, "%d %d %d %.4f %.2f %.2f", stage, depth, check.shallow,
+                            check.slope, check.offset, check.sigma));
+        Files.write(path, lines, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * withThreshold
+     * @param threshold confidence of the cuts in deviations, higher is safer and cuts less
+     * @return the same parameters with the given threshold
+     **/
+    public ProbCut withThreshold(double threshold) {
+        return new ProbCut(this.stages, threshold, this.checks);
+    }
+
+    public double getThreshold() {
+        return this.threshold;
+    }
+
+    public int getStages() {
+        return this.stages;
+    }
+
+    /**
+     * stage
+     * @param discs number of discs on the board, 4 to 64
+     * @return the stage of the game
+     **/
+    int stage(int discs) {
+        return (discs - 4) * this.stages / 61;
+    }
+
+    /**
+     * checks
+     * @param discs, depth remaining depth of the node
+     * @return the checks of the node by increasing shallow depth, none if it is searched in full
+     **/
+    Check[] checks(int discs, int depth) {
+        if (depth > PlayerAB.MAX_DEPTH)
+            return NONE;
+        return this.checks[stage(discs)][depth];
+    }
+
+    /**
+     * shallowDepths
+     * The depths of the checks of a depth: about a quarter and a half of it, with the parity of the depth
+     * so that the odd-even swing of the evaluation doesn't widen the error.
+     * @param depth
+     * @return the shallow depths, increasing, without repeats
+     **/
+    static int[] shallowDepths(int depth) {
+        int quarter = depth / 4 - (depth / 4 + depth) % 2;
+        int half = depth / 2 - (depth / 2 + depth) % 2;
+        return quarter < 1 || quarter == half ? new int[] {half} : new int[] {quarter, half};
+    }
+
+    private static List<List<List<Check>>> emptyChecks(int stages) {
+        List<List<List<Check>>> checks = new ArrayList<>();
+        for (int stage = 0; stage < stages; stage++) {
+            List<List<Check>> depths = new ArrayList<>();
+            for (int depth = 0; depth <= PlayerAB.MAX_DEPTH; depth++)
+                depths.add(new ArrayList<>());
+            checks.add(depths);
+        }
+        return checks;
+    }
+
+    private static Check[][][] toArrays(List<List<List<Check>>> checks) {
+        Check[][][] arrays = new Check[checks.size()][PlayerAB.MAX_DEPTH + 1][];
+        for (int stage = 0; stage < checks.size(); stage++) {
+            for (int depth = 0; depth <= PlayerAB.MAX_DEPTH; depth++) {
+                List<Check> list = checks.get(stage).get(depth);
+                list.sort((a, b) -> Integer.compare(a.shallow, b.shallow));
+                arrays[stage][depth] = list.isEmpty() ? NONE : list.toArray(NONE);
+            }
+        }
+        return arrays;
+    }
+
+
+    /* Calibration */
+
+    /**
+     * calibrate
+     * Searches every position to every depth up to maxDepth without ProbCut and fits the prediction
+     * of every depth from MIN_DEPTH up by each of its shallow depths, for every stage.
+     * The positions spread over the given number of threads, each with its own searcher.
+     * @param positions, evaluator, maxDepth, stages, threshold, threads
+     * @return the fitted parameters, a check is left out if its stage has too few positions
+     **/
+    public static ProbCut calibrate(List<BitBoard> positions, Evaluator evaluator, int maxDepth, int stages,
+                                    double threshold, int threads) throws InterruptedException {
+        int[][] scores = new int[positions.size()][];
+
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            workers.add(pool.submit(() -> {
+                PlayerAB owner = new PlayerAB(maxDepth, Board.B, true);
+                TranspositionTable table = new TranspositionTable(16);
+                // Deterministic: every score is the one of a full search of exactly its depth
+                Searcher searcher = new Searcher(owner, table, evaluator.copy(), 0, true);
+                for (int index; (index = next.getAndIncrement()) < positions.size(); ) {
+                    BitBoard position = positions.get(index);
+                    int[] depths = new int[maxDepth + 1];
+                    table.newSearch();
+                    for (int depth = 1; depth <= maxDepth; depth++)
+                        depths[depth] = searcher.search(position, depth, -position.getLastPlayer(),
+                                -Searcher.INFINITY, Searcher.INFINITY);
+                    scores[index] = depths;
+                }
+            }));
+        }
+        try {
+            for (Future<?> worker : workers)
+                worker.get();
+        } catch (Exception e) {
+            throw new IllegalStateException("Calibration search failed", e);
+        } finally {
+            pool.shutdown();
+        }
+
+        ProbCut probCut = new ProbCut(stages, threshold, null);
+        List<List<List<Check>>> checks = emptyChecks(stages);
+        for (int stage = 0; stage < stages; stage++) {
+            for (int depth = MIN_DEPTH; depth <= maxDepth; depth++) {
+                for (int shallow : shallowDepths(depth)) {
+                    Check check = fit(positions, scores, probCut, stage, depth, shallow);
+                    if (check != null)
+                        checks.get(stage).get(depth).add(check);
+                }
+            }
+        }
+        return new ProbCut(stages, threshold, toArrays(checks));
+    }
+
+    /**
+     * fit
+     * Least squares fit of the deep scores of the stage's positions on their shallow scores.
+     * The evaluation jumps when a side runs out of moves, so the fit is done again without the positions
+     * more than OUTLIER_SIGMAS off the first one.
+     * @return the check, null if the stage has too few positions
+     **/
+    private static Check fit(List<BitBoard> positions, int[][] scores, ProbCut probCut, int stage, int depth, int shallow) {
+        List<int[]> samples = new ArrayList<>();
+        for (int i = 0; i < positions.size(); i++) {
+            BitBoard position = positions.get(i);
+            int x = scores[i][shallow], y = scores[i][depth];
+            if (probCut.stage(position.getBlackDiscs() + position.getWhiteDiscs()) == stage
+                    && Math.abs(x) < MAX_SCORE && Math.abs(y) < MAX_SCORE)
+                samples.add(new int[] {x, y});
+        }
+
+        Check check = regress(samples, shallow);
+        if (check == null)
+            return null;
+        double limit = OUTLIER_SIGMAS * check.sigma;
+        samples.removeIf(sample -> Math.abs(sample[1] - (check.slope * sample[0] + check.offset)) > limit);
+        return regress(samples, shallow);
+    }
+
+    private static Check regress(List<int[]> samples, int shallow) {
+        double n = samples.size(), sumX = 0, sumY = 0, sumXX = 0, sumXY = 0;
+        for (int[] sample : samples) {
+            sumX += sample[0];
+            sumY += sample[1];
+            sumXX += (double) sample[0] * sample[0];
+            sumXY += (double) sample[0] * sample[1];
+        }
+        double variance = n * sumXX - sumX * sumX;
+        if (n < MIN_SAMPLES || variance <= 0)
+            return null;
+
+        double slope = (n * sumXY - sumX * sumY) / variance;
+        double offset = (sumY - slope * sumX) / n;
+        if (slope <= 0)
+            return null;
+
+        double squares = 0;
+        for (int[] sample : samples) {
+            double error = sample[1] - (slope * sample[0] + offset);
+            squares += error * error;
+        }
+        return new Check(shallow, slope, offset, Math.sqrt(squares / (n - 2)));
+    }
+
+    /**
+     * positions
+     * Positions of self-play games: random opening moves, then a shallow player that sometimes plays a random move.
+     * Every few plies of a game a position is kept, if the side to move has a move and the calibration
+     * depth doesn't reach the end of the game.
+     * @param count, maxDepth calibration depth, seed
+     * @return the positions, the same for the same arguments
+     **/
+    static List<BitBoard> positions(int count, int maxDepth, long seed) {
+        Random random = new Random(seed);
+        List<BitBoard> positions = new ArrayList<>();
+        PlayerAB[] players = new PlayerAB[2];
+        for (int i = 0; i < 2; i++) {
+            players[i] = new PlayerAB(GAME_DEPTH, i == 0 ? Board.B : Board.W, true);
+            players[i].setHashSize(1);
+            players[i].setEndgameEmpties(0);
+        }
+
+        while (positions.size() < count) {
+            BitBoard opening = Tournament.openings(1, OPENING_PLIES, false, random.nextLong()).get(0);
+            Board board = new Board(new BitBoard(opening));
+            int color = -opening.getLastPlayer();
+            for (int ply = random.nextInt(SAMPLE_EVERY); positions.size() < count; ply++) {
+                if (!board.canPlay(color)) {
+                    if (!board.canPlay(-color))
+                        break;
+                    board.setLastPlayer(color);
+                    color = -color;
+                }
+
+                BitBoard position = board.getBitBoard();
+                if (64 - position.getBlackDiscs() - position.getWhiteDiscs() <= maxDepth)
+                    break;
+                if (ply % SAMPLE_EVERY == 0)
+                    positions.add(new BitBoard(position.getBlack(), position.getWhite(), -color));
+
+                int square;
+                if (random.nextDouble() < RANDOM_MOVES) {
+                    long moves = position.legalMoves(color);
+                    for (int skip = random.nextInt(Long.bitCount(moves)); skip > 0; skip--)
+                        moves &= moves - 1;
+                    square = Long.numberOfTrailingZeros(moves);
+                } else {
+                    Move move = players[color == Board.B ? 0 : 1].move(board);
+                    square = move.getRow() * 8 + move.getCol();
+                }
+                board.placeDisk(BitBoard.row(square), BitBoard.col(square), color);
+                board.setLastPlayer(color);
+                color = -color;
+            }
+        }
+        return positions;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int count = DEFAULT_POSITIONS, maxDepth = DEFAULT_CALIBRATION_DEPTH, stages = DEFAULT_STAGES;
+        int threads = Runtime.getRuntime().availableProcessors();
+        double threshold = DEFAULT_THRESHOLD;
+        long seed = 1;
+        Evaluator evaluator = Evaluator.DEFAULT;
+        Path path = Paths.get(DEFAULT_FILE);
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-positions" -> count = Integer.parseInt(args[++i]);
+                case "-depth" -> maxDepth = Math.min(PlayerAB.MAX_DEPTH, Integer.parseInt(args[++i]));
+                case "-stages" -> stages = Integer.parseInt(args[++i]);
+                case "-threshold" -> threshold = Double.parseDouble(args[++i]);
+                case "-threads" -> threads = Integer.parseInt(args[++i]);
+                case "-seed" -> seed = Long.parseLong(args[++i]);
+                case "-eval" -> evaluator = new PatternEvaluator(PatternWeights.load(Paths.get(args[++i])));
+                default -> path = Paths.get(args[i]);
+            }
+        }
+
+        long start = System.nanoTime();
+        List<BitBoard> positions = positions(count, maxDepth, seed);
+        ProbCut probCut = calibrate(positions, evaluator, maxDepth, stages, threshold, threads);
+        probCut.write(path);
+        System.out.printf("Calibrated depths %d to %d on %d positions in %.1f s, wrote %s%n",
+                MIN_DEPTH, maxDepth, positions.size(), (System.nanoTime() - start) / 1e9, path);
+    }
+}
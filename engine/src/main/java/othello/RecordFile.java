@@ -0,0 +1,191 @@
+package othello;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * RecordFile
+ *
+ * A compact binary file of games or of positions, for self-play output and for tuning sets of
+ * tens of millions of positions. RecordWriter and RecordReader stream the records a block at a time,
+ * so a file is never held in memory, and the block index lets a reader jump to any record.
+ *
+ * File format, little-endian:
+ * int magic "OTHR", int version, int kind (GAMES or POSITIONS), int flags (COMPRESSED or 0),
+ * then the blocks, each int records, int raw bytes, int stored bytes and the stored bytes:
+ * the records of the block, deflated if the file is compressed. A record never spans two blocks.
+ * Then the block index, for every block long file offset and long number of its first record,
+ * and the trailer: long index offset, long records, int blocks, int magic.
+ *
+ * A position is long black discs, long white discs and byte side to move (1 black, -1 white), 17 bytes.
+ * A game is its start position like a position, byte number of moves, then a byte for every move:
+ * the square (row * 8 + col) or 64 (BitBoard.PASS) for a pass.
+ *
+ * Usage: java othello.RecordFile info file
+ *        java othello.RecordFile import text file [-compress]  reads text games into a game file
+ *        java othello.RecordFile export file [text]            writes the records as text
+ *        java othello.RecordFile positions games file [-compress]
+ *                                           writes the position before every move of the games
+ * Text games are one per line like the input of Analyser, "f5d6c3d3c4" from the start, passes left out.
+ * Positions are exported as the black and white discs in hex and the side to move, and so is the start
+ * position of a game that doesn't start from the initial position, before its moves.
+ **/
+public final class RecordFile {
+    public static final int GAMES = 0;
+    public static final int POSITIONS = 1;
+
+    public static final int COMPRESSED = 1;
+
+    public static final int MAX_MOVES = 0xFF;
+
+    static final int MAGIC = 0x5248544F;    // "OTHR"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int BLOCK_HEADER_BYTES = 12;
+    static final int INDEX_ENTRY_BYTES = 16;
+    static final int TRAILER_BYTES = 24;
+
+    // Raw size of a block, a game of MAX_MOVES fits many times
+    static final int BLOCK_BYTES = 1 << 16;
+    static final int POSITION_BYTES = 17;
+
+    private RecordFile() {
+    }
+
+    /**
+     * parseGame
+     * Replays a text game from the start, adding the passes it leaves out.
+     * @param game like "f5d6c3", moves filled with the squares and passes of the game
+     * @return the number of moves
+     * @throws IllegalArgumentException if the game has an illegal move or can't be read
+     **/
+    static int parseGame(String game, int[] moves) {
+        BitBoard board = new BitBoard();
+        int color = Board.B;
+        int count = 0;
+        for (int i = 0; i < game.length(); i += 2) {
+            String name = game.substring(i, Math.min(i + 2, game.length()));
+            int square = Analyser.square(name);
+            if (board.legalMoves(color) == 0 && board.legalMoves(-color) != 0) {
+                moves[count++] = BitBoard.PASS;
+                color = -color;
+            }
+            if (square < 0 || (board.legalMoves(color) & (1L << square)) == 0)
+                throw new IllegalArgumentException("illegal move " + name + " at ply " + (i / 2 + 1));
+            if (count == MAX_MOVES)
+                throw new IllegalArgumentException("more than " + MAX_MOVES + " moves");
+            board.placeDisk(square, color);
+            moves[count++] = square;
+            color = -color;
+        }
+        return count;
+    }
+
+    // The moves of a game as text, without its passes
+    private static String formatGame(RecordReader reader) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < reader.getMoveCount(); i++)
+            if (reader.getMove(i) != BitBoard.PASS)
+                text.append(Analyser.squareName(reader.getMove(i)));
+        return text.toString();
+    }
+
+    private static boolean isStart(RecordReader reader) {
+        BitBoard start = new BitBoard();
+        return reader.getBlack() == start.getBlack() && reader.getWhite() == start.getWhite()
+                && reader.getColor() == Board.B;
+    }
+
+    private static void info(Path path) throws IOException {
+        try (RecordReader reader = RecordReader.open(path)) {
+            long bytes = Files.size(path);
+            System.out.printf("%s: %d %s in %d %sblocks, %d bytes, %.2f bytes per record%n", path, reader.size(),
+                    reader.getKind() == GAMES ? "games" : "positions", reader.getBlocks(),
+                    reader.isCompressed() ? "compressed " : "", bytes, (double) bytes / Math.max(reader.size(), 1));
+        }
+    }
+
+    private static void importGames(Path text, Path path, boolean compressed) throws IOException {
+        int[] moves = new int[MAX_MOVES];
+        long games = 0;
+        try (BufferedReader reader = Files.newBufferedReader(text, StandardCharsets.UTF_8);
+             RecordWriter writer = RecordWriter.create(path, GAMES, compressed)) {
+            for (String line; (line = reader.readLine()) != null; ) {
+                line = line.trim();
+                if (line.isEmpty())
+                    continue;
+                games++;
+                try {
+                    int count = parseGame(line, moves);
+                    BitBoard start = new BitBoard();
+                    writer.writeGame(start.getBlack(), start.getWhite(), Board.B, moves, count);
+                } catch (IllegalArgumentException e) {
+                    System.err.println("# game " + games + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static void export(Path path, PrintWriter writer) throws IOException {
+        try (RecordReader reader = RecordReader.open(path)) {
+            while (reader.next()) {
+                if (reader.getKind() == POSITIONS || !isStart(reader))
+                    writer.printf("%016x %016x %d", reader.getBlack(), reader.getWhite(), reader.getColor());
+                if (reader.getKind() == GAMES)
+                    writer.print((isStart(reader) ? "" : " ") + formatGame(reader));
+                writer.println();
+            }
+        }
+        writer.flush();
+    }
+
+    private static void positions(Path games, Path path, boolean compressed) throws IOException {
+        try (RecordReader reader = RecordReader.open(games);
+             RecordWriter writer = RecordWriter.create(path, POSITIONS, compressed)) {
+            if (reader.getKind() != GAMES)
+                throw new IOException(games + " is not a game file");
+            while (reader.next()) {
+                BitBoard board = reader.toBitBoard();
+                int color = reader.getColor();
+                for (int i = 0; i < reader.getMoveCount(); i++) {
+                    int move = reader.getMove(i);
+                    if (move != BitBoard.PASS) {
+                        writer.writePosition(board.getBlack(), board.getWhite(), color);
+                        board.placeDisk(move, color);
+                    }
+                    color = -color;
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: java othello.RecordFile info|import|export|positions ...");
+            System.exit(1);
+        }
+        boolean compressed = args.length > 3 && args[3].equals("-compress");
+        switch (args[0]) {
+            case "info" -> info(Paths.get(args[1]));
+            case "import" -> importGames(Paths.get(args[1]), Paths.get(args[2]), compressed);
+            case "positions" -> positions(Paths.get(args[1]), Paths.get(args[2]), compressed);
+            case "export" -> {
+                if (args.length > 2) {
+                    try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(Paths.get(args[2]),
+                            StandardCharsets.UTF_8))) {
+                        export(Paths.get(args[1]), writer);
+                    }
+                } else {
+                    export(Paths.get(args[1]), new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)));
+                }
+            }
+            default -> throw new IllegalArgumentException("Unknown command " + args[0]);
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package othello;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * RecordReader
+ *
+ * Reads the games or the positions of a record file (see RecordFile) a record at a time: next() moves
+ * to the next record, whose fields are then read with the getters. The records are decoded into
+ * the same fields every time, so reading allocates nothing once the first block is in.
+ * Blocks are read as the records reach them, only one is held in memory. seek() jumps to any record
+ * through the block index, decoding only the records before it in its block. Not thread-safe.
+ **/
+public final class RecordReader implements Closeable {
+    private final Path path;
+    private final FileChannel channel;
+    private final int kind;
+    private final boolean compressed;
+    private final long records;
+    private final long[] offsets;
+    private final long[] firstRecords;
+
+    private final ByteBuffer block = ByteBuffer.allocate(RecordFile.BLOCK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private final ByteBuffer blockHeader =
+            ByteBuffer.allocate(RecordFile.BLOCK_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private final Inflater inflater;
+    private ByteBuffer stored;
+    private int nextBlock;
+
+    // The current record
+    private long black, white;
+    private int color;
+    private final int[] moves = new int[RecordFile.MAX_MOVES];
+    private int moveCount;
+
+    private RecordReader(Path path, FileChannel channel, int kind, boolean compressed, long records,
+                         long[] offsets, long[] firstRecords) {
+        this.path = path;
+        this.channel = channel;
+        this.kind = kind;
+        this.compressed = compressed;
+        this.records = records;
+        this.offsets = offsets;
+        this.firstRecords = firstRecords;
+        this.inflater = compressed ? new Inflater() : null;
+        this.block.limit(0);
+    }
+
+    /**
+     * open
+     * Reads the header and the block index of the file.
+     * @param path
+     * @return the reader, positioned before the first record
+     * @throws IOException if the file can't be read, is not a record file or was not closed by its writer
+     **/
+    public static RecordReader open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            ByteBuffer header = read(channel, 0, RecordFile.HEADER_BYTES, path);
+            if (size < RecordFile.HEADER_BYTES + RecordFile.TRAILER_BYTES || header.getInt(0) != RecordFile.MAGIC)
+                throw new IOException(path + " is not a record file");
+            if (header.getInt(4) != RecordFile.VERSION)
+                throw new IOException(path + " has version " + header.getInt(4) + ", expected " + RecordFile.VERSION);
+            int kind = header.getInt(8);
+            if (kind != RecordFile.GAMES && kind != RecordFile.POSITIONS)
+                throw new IOException(path + " has unknown record kind " + kind);
+            boolean compressed = (header.getInt(12) & RecordFile.COMPRESSED) != 0;
+
+            ByteBuffer trailer = read(channel, size - RecordFile.TRAILER_BYTES, RecordFile.TRAILER_BYTES, path);
+            long indexOffset = trailer.getLong(0);
+            long records = trailer.getLong(8);
+            int blocks = trailer.getInt(16);
+            if (trailer.getInt(20) != RecordFile.MAGIC || blocks < 0
+                    || indexOffset + (long) blocks * RecordFile.INDEX_ENTRY_BYTES + RecordFile.TRAILER_BYTES != size)
+                throw new IOException(path + " is truncated");
+
+            ByteBuffer index = read(channel, indexOffset, blocks * RecordFile.INDEX_ENTRY_BYTES, path);
+            long[] offsets = new long[blocks];
+            long[] firstRecords = new long[blocks];
+            for (int i = 0; i < blocks; i++) {
+                offsets[i] = index.getLong();
+                firstRecords[i] = index.getLong();
+            }
+            return new RecordReader(path, channel, kind, compressed, records, offsets, firstRecords);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * getKind
+     * @return RecordFile.GAMES or POSITIONS
+     **/
+    public int getKind() {
+        return this.kind;
+    }
+
+    public boolean isCompressed() {
+        return this.compressed;
+    }
+
+    /**
+     * size
+     * @return the number of records in the file
+     **/
+    public long size() {
+        return this.records;
+    }
+
+    public int getBlocks() {
+        return this.offsets.length;
+    }
+
+    /**
+     * next
+     * Moves to the next record.
+     * @return false at the end of the file
+     **/
+    public boolean next() throws IOException {
+        if (!this.block.hasRemaining()) {
+            if (this.nextBlock == this.offsets.length)
+                return false;
+            readBlock(this.nextBlock++);
+        }
+
+        this.black = this.block.getLong();
+        this.white = this.block.getLong();
+        this.color = this.block.get();
+        if (this.kind == RecordFile.GAMES) {
+            this.moveCount = this.block.get() & 0xFF;
+            for (int i = 0; i < this.moveCount; i++)
+                this.moves[i] = this.block.get();
+        }
+        return true;
+    }
+
+    /**
+     * seek
+     * Positions the reader before a record, the next call to next() reads it.
+     * @param record number of the record, from 0
+     **/
+    public void seek(long record) throws IOException {
+        if (record < 0 || record > this.records)
+            throw new IllegalArgumentException("Record " + record + " out of 0 to " + this.records);
+
+        int found = Arrays.binarySearch(this.firstRecords, record);
+        int blockIndex = found >= 0 ? found : -found - 2;
+        if (blockIndex < 0 || record == this.records) {
+            this.nextBlock = this.offsets.length;
+            this.block.limit(0);
+            return;
+        }
+
+        readBlock(blockIndex);
+        this.nextBlock = blockIndex + 1;
+        for (long skip = record - this.firstRecords[blockIndex]; skip > 0; skip--)
+            next();
+    }
+
+    public long getBlack() {
+        return this.black;
+    }
+
+    public long getWhite() {
+        return this.white;
+    }
+
+    /**
+     * getColor
+     * @return the side to move of a position, the side to move at the start of a game
+     **/
+    public int getColor() {
+        return this.color;
+    }
+
+    public int getMoveCount() {
+        return this.moveCount;
+    }
+
+    /**
+     * getMove
+     * @param i number of the move in the game, from 0
+     * @return the square of the move, BitBoard.PASS for a pass
+     **/
+    public int getMove(int i) {
+        return this.moves[i];
+    }
+
+    /**
+     * toBitBoard
+     * @return a new board with the position, or the start position of the game
+     **/
+    public BitBoard toBitBoard() {
+        return new BitBoard(this.black, this.white, -this.color);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.inflater != null)
+            this.inflater.end();
+        this.channel.close();
+    }
+
+    private void readBlock(int blockIndex) throws IOException {
+        long offset = this.offsets[blockIndex];
+        this.blockHeader.clear();
+        readFully(this.channel, this.blockHeader, offset, this.path);
+        int raw = this.blockHeader.getInt(4);
+        int storedBytes = this.blockHeader.getInt(8);
+        if (raw < 0 || raw > RecordFile.BLOCK_BYTES || storedBytes < 0)
+            throw new IOException(this.path + " has a corrupt block at " + offset);
+
+        this.block.clear();
+        long dataOffset = offset + RecordFile.BLOCK_HEADER_BYTES;
+        if (!this.compressed) {
+            this.block.limit(raw);
+            readFully(this.channel, this.block, dataOffset, this.path);
+            this.block.flip();
+            return;
+        }
+
+        if (this.stored == null || this.stored.capacity() < storedBytes)
+            this.stored = ByteBuffer.allocate(Math.max(storedBytes, RecordFile.BLOCK_BYTES));
+        this.stored.clear().limit(storedBytes);
+        readFully(this.channel, this.stored, dataOffset, this.path);
+
+        this.inflater.reset();
+        this.inflater.setInput(this.stored.array(), 0, storedBytes);
+        try {
+            if (this.inflater.inflate(this.block.array(), 0, raw) != raw)
+                throw new IOException(this.path + " has a corrupt block at " + offset);
+        } catch (DataFormatException e) {
+            throw new IOException(this.path + " has a corrupt block at " + offset, e);
+        }
+        this.block.limit(raw);
+    }
+
+    private static ByteBuffer read(FileChannel channel, long offset, int bytes, Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, buffer, offset, path);
+        return buffer.flip();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long offset, Path path) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, offset);
+            if (read < 0)
+                throw new EOFException(path + " is truncated");
+            offset += read;
+        }
+    }
+}
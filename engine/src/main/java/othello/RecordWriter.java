@@ -0,0 +1,180 @@
+package othello;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * RecordWriter
+ *
+ * Writes the games or the positions of a record file (see RecordFile) as they come.
+ * Records are gathered in a block, and every full block is written out, deflated if the file is compressed.
+ * Only the current block and the index of the blocks written are kept in memory.
+ * The file is complete once the writer is closed. Not thread-safe.
+ **/
+public final class RecordWriter implements Closeable {
+    private final FileChannel channel;
+    private final int kind;
+    private final ByteBuffer block = ByteBuffer.allocate(RecordFile.BLOCK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private final ByteBuffer blockHeader =
+            ByteBuffer.allocate(RecordFile.BLOCK_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private final Deflater deflater;
+    private byte[] deflated;
+
+    private long position;
+    private long records;
+    private int blockRecords;
+
+    // The index: file offset and first record of every block written
+    private long[] offsets = new long[64];
+    private long[] firstRecords = new long[64];
+    private int blocks;
+
+    private RecordWriter(FileChannel channel, int kind, boolean compressed) {
+        this.channel = channel;
+        this.kind = kind;
+        this.deflater = compressed ? new Deflater(Deflater.BEST_SPEED) : null;
+        this.deflated = compressed ? new byte[RecordFile.BLOCK_BYTES + (RecordFile.BLOCK_BYTES >> 4) + 64] : null;
+    }
+
+    /**
+     * create
+     * Creates the file, or replaces it if there is one.
+     * @param path, kind RecordFile.GAMES or POSITIONS, compressed to deflate the blocks
+     * @return the writer, positioned at the first record
+     **/
+    public static RecordWriter create(Path path, int kind, boolean compressed) throws IOException {
+        if (kind != RecordFile.GAMES && kind != RecordFile.POSITIONS)
+            throw new IllegalArgumentException("Unknown record kind " + kind);
+
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        RecordWriter writer = new RecordWriter(channel, kind, compressed);
+        ByteBuffer header = ByteBuffer.allocate(RecordFile.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(RecordFile.MAGIC).putInt(RecordFile.VERSION).putInt(kind)
+                .putInt(compressed ? RecordFile.COMPRESSED : 0).flip();
+        try {
+            writer.write(header);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return writer;
+    }
+
+    /**
+     * writePosition
+     * @param black, white discs, color side to move
+     **/
+    public void writePosition(long black, long white, int color) throws IOException {
+        if (this.kind != RecordFile.POSITIONS)
+            throw new IllegalStateException("Not a position file");
+        reserve(RecordFile.POSITION_BYTES);
+        this.block.putLong(black).putLong(white).put((byte) color);
+        this.blockRecords++;
+        this.records++;
+    }
+
+    /**
+     * writeGame
+     * @param black, white discs of the start position, color side to move at the start,
+     *        moves squares of the moves and BitBoard.PASS for passes, count number of moves
+     **/
+    public void writeGame(long black, long white, int color, int[] moves, int count) throws IOException {
+        if (this.kind != RecordFile.GAMES)
+            throw new IllegalStateException("Not a game file");
+        if (count > RecordFile.MAX_MOVES)
+            throw new IllegalArgumentException("A game has at most " + RecordFile.MAX_MOVES + " moves, not " + count);
+
+        for (int i = 0; i < count; i++)
+            if (moves[i] < 0 || moves[i] > BitBoard.PASS)
+                throw new IllegalArgumentException("Not a move: " + moves[i]);
+
+        reserve(RecordFile.POSITION_BYTES + 1 + count);
+        this.block.putLong(black).putLong(white).put((byte) color).put((byte) count);
+        for (int i = 0; i < count; i++)
+            this.block.put((byte) moves[i]);
+        this.blockRecords++;
+        this.records++;
+    }
+
+    public long getRecords() {
+        return this.records;
+    }
+
+    /**
+     * close
+     * Writes the last block, the index and the trailer.
+     **/
+    @Override
+    public void close() throws IOException {
+        try {
+            writeBlock();
+            long indexOffset = this.position;
+            ByteBuffer index = ByteBuffer.allocate(this.blocks * RecordFile.INDEX_ENTRY_BYTES + RecordFile.TRAILER_BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < this.blocks; i++)
+                index.putLong(this.offsets[i]).putLong(this.firstRecords[i]);
+            index.putLong(indexOffset).putLong(this.records).putInt(this.blocks).putInt(RecordFile.MAGIC).flip();
+            write(index);
+        } finally {
+            if (this.deflater != null)
+                this.deflater.end();
+            this.channel.close();
+        }
+    }
+
+    // Writes out the block if the record doesn't fit in it
+    private void reserve(int bytes) throws IOException {
+        if (this.block.remaining() < bytes)
+            writeBlock();
+    }
+
+    private void writeBlock() throws IOException {
+        if (this.blockRecords == 0)
+            return;
+
+        if (this.blocks == this.offsets.length) {
+            this.offsets = Arrays.copyOf(this.offsets, this.blocks * 2);
+            this.firstRecords = Arrays.copyOf(this.firstRecords, this.blocks * 2);
+        }
+        this.offsets[this.blocks] = this.position;
+        this.firstRecords[this.blocks] = this.records - this.blockRecords;
+        this.blocks++;
+
+        this.block.flip();
+        int raw = this.block.remaining();
+        ByteBuffer stored = this.block;
+        if (this.deflater != null) {
+            this.deflater.reset();
+            this.deflater.setInput(this.block.array(), 0, raw);
+            this.deflater.finish();
+            int length = 0;
+            while (!this.deflater.finished()) {
+                if (length == this.deflated.length)
+                    this.deflated = Arrays.copyOf(this.deflated, length * 2);
+                length += this.deflater.deflate(this.deflated, length, this.deflated.length - length);
+            }
+            stored = ByteBuffer.wrap(this.deflated, 0, length);
+        }
+
+        this.blockHeader.clear();
+        this.blockHeader.putInt(this.blockRecords).putInt(raw).putInt(stored.remaining()).flip();
+        write(this.blockHeader);
+        write(stored);
+
+        this.block.clear();
+        this.blockRecords = 0;
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining())
+            this.position += this.channel.write(buffer);
+    }
+}
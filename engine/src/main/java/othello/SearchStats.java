@@ -0,0 +1,261 @@
+package othello;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * SearchStats
+ *
+ * What the search of one move did: where the move came from (search, endgame solver or opening book),
+ * the tree size, how well it was ordered, how often the transposition table helped and the time
+ * and nodes of every iteration of the iterative deepening.
+ * Counted by every search thread on its own and summed at the end of the move.
+ *
+ * Every move is also recorded as a JFR event (othello.Move, with an othello.Iteration event for every
+ * completed depth), so a recording of a production game can be analysed after the fact:
+ * java -XX:StartFlightRecording=filename=games.jfr ... then jfr print --events othello.Move games.jfr
+ **/
+public final class SearchStats {
+    public static final String SEARCH = "search";
+    public static final String ENDGAME = "endgame";
+    public static final String BOOK = "book";
+
+    private final String source;
+    private final int move;
+    private final int score;
+    private final long nanos;
+    private final long nodes;
+    private final long evaluations;
+    private final long cutoffs;
+    private final long firstMoveCutoffs;
+    private final long tableProbes;
+    private final long tableHits;
+    private final long[] iterationNodes;
+    private final long[] iterationNanos;
+
+    /**
+     * SearchStats
+     * @param source SEARCH, ENDGAME or BOOK, move square, score from black's point of view, nanos time of the move,
+     *        nodes, evaluations, cutoffs, firstMoveCutoffs, tableProbes, tableHits,
+     *        iterationNodes and iterationNanos of every completed depth, from depth 1
+     **/
+    SearchStats(String source, int move, int score, long nanos, long nodes, long evaluations, long cutoffs,
+                long firstMoveCutoffs, long tableProbes, long tableHits, long[] iterationNodes, long[] iterationNanos) {
+        this.source = source;
+        this.move = move;
+        this.score = score;
+        this.nanos = nanos;
+        this.nodes = nodes;
+        this.evaluations = evaluations;
+        this.cutoffs = cutoffs;
+        this.firstMoveCutoffs = firstMoveCutoffs;
+        this.tableProbes = tableProbes;
+        this.tableHits = tableHits;
+        this.iterationNodes = iterationNodes;
+        this.iterationNanos = iterationNanos;
+    }
+
+    public String getSource() {
+        return this.source;
+    }
+
+    public int getMove() {
+        return this.move;
+    }
+
+    public int getScore() {
+        return this.score;
+    }
+
+    public long getNanos() {
+        return this.nanos;
+    }
+
+    public long getNodes() {
+        return this.nodes;
+    }
+
+    public long getNodesPerSecond() {
+        return this.nanos == 0 ? 0 : (long) (this.nodes * 1e9 / this.nanos);
+    }
+
+    public long getEvaluations() {
+        return this.evaluations;
+    }
+
+    public long getCutoffs() {
+        return this.cutoffs;
+    }
+
+    public long getFirstMoveCutoffs() {
+        return this.firstMoveCutoffs;
+    }
+
+    public double getFirstMoveCutoffRate() {
+        return this.cutoffs == 0 ? 0 : (double) this.firstMoveCutoffs / this.cutoffs;
+    }
+
+    public long getTableProbes() {
+        return this.tableProbes;
+    }
+
+    public long getTableHits() {
+        return this.tableHits;
+    }
+
+    public double getTableHitRate() {
+        return this.tableProbes == 0 ? 0 : (double) this.tableHits / this.tableProbes;
+    }
+
+    /**
+     * getDepth
+     * @return the deepest completed iteration, 0 for a book or endgame solver move
+     **/
+    public int getDepth() {
+        return this.iterationNodes.length;
+    }
+
+    /**
+     * getIterationNodes
+     * @param depth from 1 to getDepth()
+     * @return the nodes searched by the iteration of the given depth
+     **/
+    public long getIterationNodes(int depth) {
+        return this.iterationNodes[depth - 1];
+    }
+
+    public long getIterationNanos(int depth) {
+        return this.iterationNanos[depth - 1];
+    }
+
+    /**
+     * getBranchingFactor
+     * Effective branching factor: how many times bigger the tree of the given depth was than the one a ply shallower.
+     * @param depth from 2 to getDepth()
+     * @return the ratio of the nodes of the two iterations
+     **/
+    public double getBranchingFactor(int depth) {
+        long previous = getIterationNodes(depth - 1);
+        return previous == 0 ? 0 : (double) getIterationNodes(depth) / previous;
+    }
+
+    /**
+     * commit
+     * Records the move as a JFR event, if the recording is on.
+     * @param event started with begin() when the move started
+     **/
+    void commit(MoveEvent event) {
+        event.end();
+        if (!event.shouldCommit())
+            return;
+
+        event.source = this.source;
+        event.move = squareName(this.move);
+        event.score = this.score;
+        event.depth = getDepth();
+        event.nodes = this.nodes;
+        event.nodesPerSecond = getNodesPerSecond();
+        event.evaluations = this.evaluations;
+        event.cutoffs = this.cutoffs;
+        event.firstMoveCutoffs = this.firstMoveCutoffs;
+        event.tableProbes = this.tableProbes;
+        event.tableHits = this.tableHits;
+        event.branchingFactor = getDepth() > 1 ? getBranchingFactor(getDepth()) : 0;
+        event.commit();
+    }
+
+    /**
+     * toString
+     * @return the stats on one line, for a log
+     **/
+    @Override
+    public String toString() {
+        StringBuilder line = new StringBuilder();
+        line.append(String.format("move %s %s score %d depth %d time %.1f ms nodes %d nps %d evals %d"
+                        + " cutoffs %d first %.1f%% tt hits %.1f%%",
+                squareName(this.move), this.source, this.score, getDepth(), this.nanos / 1e6, this.nodes,
+                getNodesPerSecond(), this.evaluations, this.cutoffs, 100 * getFirstMoveCutoffRate(),
+                100 * getTableHitRate()));
+
+        if (getDepth() > 1) {
+            line.append(" ebf");
+            for (int depth = 2; depth <= getDepth(); depth++)
+                line.append(String.format(" %.1f", getBranchingFactor(depth)));
+        }
+        return line.toString();
+    }
+
+    // Row and column from 1, like the moves Main prints
+    private static String squareName(int square) {
+        if (square < 0 || square == BitBoard.PASS)
+            return "-";
+        return (BitBoard.row(square) + 1) + "," + (BitBoard.col(square) + 1);
+    }
+
+
+    /* JFR Events */
+
+    @Name("othello.Move")
+    @Label("Move")
+    @Category("Othello")
+    @Description("The search of one move of PlayerAB")
+    public static final class MoveEvent extends Event {
+        @Label("Source")
+        @Description("search, endgame or book")
+        String source;
+
+        @Label("Move")
+        String move;
+
+        @Label("Score")
+        @Description("From black's point of view")
+        int score;
+
+        @Label("Depth")
+        int depth;
+
+        @Label("Nodes")
+        long nodes;
+
+        @Label("Nodes per Second")
+        long nodesPerSecond;
+
+        @Label("Evaluations")
+        long evaluations;
+
+        @Label("Beta Cutoffs")
+        long cutoffs;
+
+        @Label("First Move Cutoffs")
+        long firstMoveCutoffs;
+
+        @Label("TT Probes")
+        long tableProbes;
+
+        @Label("TT Hits")
+        long tableHits;
+
+        @Label("Branching Factor")
+        @Description("Of the deepest iteration")
+        double branchingFactor;
+    }
+
+    @Name("othello.Iteration")
+    @Label("Iteration")
+    @Category("Othello")
+    @Description("One completed depth of the iterative deepening")
+    public static final class IterationEvent extends Event {
+        @Label("Depth")
+        int depth;
+
+        @Label("Score")
+        @Description("From the side to move's point of view")
+        int score;
+
+        @Label("Nodes")
+        long nodes;
+    }
+}
@@ -0,0 +1,342 @@
+package othello;
+
+import java.util.Arrays;
+
+/**
+ * Searcher Class
+ *
+ * The negamax alpha-beta search of one thread.
+ * Scores are from the point of view of the side to move.
+ * Owns the position it plays moves on, its move ordering tables and its node counter,
+ * and shares the transposition table and the stop flag of its PlayerAB with the other threads.
+ * Moves are squares (row * 8 + col) in per-ply buffers, so once a search has started it allocates nothing.
+ * With ProbCut parameters, non-PV nodes may be cut by Multi-ProbCut on the result of a shallower search.
+ * Non-PV nodes where one side has already won on stable discs are cut without a search.
+ **/
+class Searcher {
+    static final int INFINITY = 1_000_000;
+    private static final int CUTOFF = -2;
+    private static final int NO_CUT = Integer.MIN_VALUE;
+
+    // Stability is only checked at nodes with this much depth left, below it the check costs more than it cuts
+    private static final int STABILITY_DEPTH = 3;
+
+    // Limits are checked every CHECK_INTERVAL + 1 nodes
+    private static final int CHECK_INTERVAL = 1023;
+
+    private final PlayerAB player;
+    private final TranspositionTable table;
+    private final Evaluator evaluator;
+    private final MoveOrderer orderer = new MoveOrderer();
+    private final int id;
+    private final boolean deterministic;
+    private final BitBoard position = new BitBoard();
+    private ProbCut probCut;
+
+    private int searchDepth;
+    private int ttScore;
+
+    // Statistics of the current move, see SearchStats
+    long nodes;
+    long evaluations;
+    long tableProbes;
+    long tableHits;
+
+    // Principal variation of every ply
+    private final int[][] pv = new int[PlayerAB.MAX_DEPTH + 1][PlayerAB.MAX_DEPTH + 1];
+    private final int[] pvLength = new int[PlayerAB.MAX_DEPTH + 1];
+
+    /**
+     * Searcher
+     * @param player owner of the search limits and the stop flag
+     * @param table transposition table shared by all the threads of the player
+     * @param evaluator this thread's own evaluator
+     * @param id 0 for the main thread, helpers start at 1
+     * @param deterministic makes the result independent of the other threads, see PlayerAB.setDeterministic
+     **/
+    Searcher(PlayerAB player, TranspositionTable table, Evaluator evaluator, int id, boolean deterministic) {
+        this.player = player;
+        this.table = table;
+        this.evaluator = evaluator;
+        this.id = id;
+        this.deterministic = deterministic;
+    }
+
+    void newSearch() {
+        this.orderer.newSearch();
+        resetStats();
+    }
+
+    void resetStats() {
+        this.nodes = 0;
+        this.evaluations = 0;
+        this.tableProbes = 0;
+        this.tableHits = 0;
+    }
+
+    /**
+     * setProbCut
+     * @param probCut parameters of the selective search, null searches every node in full
+     **/
+    void setProbCut(ProbCut probCut) {
+        this.probCut = probCut;
+    }
+
+    MoveOrderer getOrderer() {
+        return this.orderer;
+    }
+
+    /**
+     * search
+     * Searches the position to the given depth within the (alpha, beta) window, on the searcher's own copy of it.
+     * The principal variation of the search is then available from getPrincipalVariation().
+     * @param root only read, so all the threads can share it, depth, color, alpha, beta
+     * @return the score for the given color, meaningless if the search was stopped
+     **/
+    int search(BitBoard root, int depth, int color, int alpha, int beta) {
+        this.searchDepth = depth;
+        this.position.set(root);
+        this.evaluator.setPosition(this.position);
+        return negamax(this.position, depth, 0, alpha, beta, color);
+    }
+
+    /**
+     * getPrincipalVariation
+     * @return the moves of the principal variation of the last search, BitBoard.PASS for a pass
+     **/
+    int[] getPrincipalVariation() {
+        return Arrays.copyOf(this.pv[0], this.pvLength[0]);
+    }
+
+    /**
+     * helpSearch
+     * Lazy SMP helper loop: deepens on its own copy of the root and fills the shared table
+     * until the player stops the search. Odd helpers run one ply ahead of the main thread
+     * (unless the search is deterministic) so that the threads spread over different depths.
+     * @param root, maxDepth, color
+     **/
+    void helpSearch(BitBoard root, int maxDepth, int color) {
+        int offset = this.deterministic ? 0 : this.id & 1;
+        for(int depth = 1 + offset; depth <= maxDepth && !this.player.isStopped(); depth++)
+            search(root, depth, color, -INFINITY, INFINITY);
+    }
+
+    /**
+     * Negamax
+     * Principal variation search: the first move gets the full window, the rest are scouted
+     * with a null window and searched again only when they beat alpha.
+     * @param board, depth remaining depth, ply distance from the root, alpha, beta, color side to move
+     * @return the score of the position for the side to move
+     **/
+    int negamax(BitBoard board, int depth, int ply, int alpha, int beta, int color) {
+        this.pvLength[ply] = ply;
+
+        if((++this.nodes & CHECK_INTERVAL) == 0 && this.id == 0)
+            this.player.checkLimits(this.searchDepth);
+        if(this.player.isStopped())
+            return 0;
+
+        if(board.isFull()) {
+            this.evaluations++;
+            return color * board.evaluate();
+        }
+        if(depth == 0) {
+            this.evaluations++;
+            return color * this.evaluator.evaluate(board);
+        }
+
+        boolean pvNode = beta - alpha > 1;
+        long key = board.getHash();
+        int ttMove = probe(key, depth, ply, alpha, beta, pvNode);
+        if(ttMove == CUTOFF)
+            return this.ttScore;
+
+        if(!pvNode && ply > 0 && depth >= STABILITY_DEPTH) {
+            int score = stabilityCutoff(board, alpha, beta, color);
+            if(score != NO_CUT)
+                return score;
+        }
+
+        if(!pvNode && ply > 0 && this.probCut != null && depth >= ProbCut.MIN_DEPTH) {
+            int score = probCut(board, depth, ply, alpha, beta, color);
+            if(score != NO_CUT)
+                return score;
+        }
+
+        long moves = board.legalMoves(color);
+        if(moves == 0) {
+            if(board.legalMoves(-color) == 0) {
+                this.evaluations++;
+                return color * board.evaluate();
+            }
+
+            board.makePass(color);
+            int score = -negamax(board, depth - 1, ply + 1, -beta, -alpha, -color);
+            board.undoMove();
+            updatePrincipalVariation(ply, BitBoard.PASS);
+            return score;
+        }
+
+        int alphaOrig = alpha;
+        int bestScore = -INFINITY;
+        int bestSquare = BitBoard.NO_MOVE;
+        int count = order(moves, ttMove, ply, depth, color);
+        for(int i = 0; i < count; i++) {
+            int square = next(ply, i, count);
+            int score;
+
+            long flipped = board.makeMove(square, color);
+            this.evaluator.makeMove(square, flipped, color);
+            if(i == 0) {
+                score = -negamax(board, depth - 1, ply + 1, -beta, -alpha, -color);
+            } else {
+                score = -negamax(board, depth - 1, ply + 1, -alpha - 1, -alpha, -color);
+                if(score > alpha && score < beta)
+                    score = -negamax(board, depth - 1, ply + 1, -beta, -alpha, -color);
+            }
+            board.undoMove();
+            this.evaluator.undoMove(square, flipped, color);
+
+            if(score > bestScore) {
+                bestScore = score;
+                bestSquare = square;
+
+                if(score > alpha) {
+                    alpha = score;
+                    updatePrincipalVariation(ply, square);
+                }
+            }
+
+            if(alpha >= beta) {
+                this.orderer.cutoff(square, ply, color, depth, i);
+                break;
+            }
+        }
+        store(key, depth, alphaOrig, beta, bestScore, bestSquare);
+        return bestScore;
+    }
+
+    /**
+     * stabilityCutoff
+     * A side with more than 32 stable discs has won the game whatever is played, so the node scores
+     * as a finished game without searching when that score is outside the window.
+     * @param board, alpha, beta, color
+     * @return the score of the won or lost game if the node is cut, otherwise NO_CUT
+     **/
+    private int stabilityCutoff(BitBoard board, int alpha, int beta, int color) {
+        long player = color == Board.B ? board.getBlack() : board.getWhite();
+        long opponent = color == Board.B ? board.getWhite() : board.getBlack();
+        if(Long.bitCount(opponent) > 32 && -BitBoard.WIN_SCORE <= alpha && Stability.count(opponent, player) > 32)
+            return -BitBoard.WIN_SCORE;
+        if(Long.bitCount(player) > 32 && BitBoard.WIN_SCORE >= beta && Stability.count(player, opponent) > 32)
+            return BitBoard.WIN_SCORE;
+        return NO_CUT;
+    }
+
+    /**
+     * probCut
+     * Multi-ProbCut: for every check of the node, from the shallowest, a null-window search of the shallow depth
+     * tells whether the deep search would fail high or low with the confidence of the threshold.
+     * Bounds out of the range of evaluations (wins and losses, and the saturated bounds of an infinite threshold)
+     * are not checked.
+     * @param board, depth, ply, alpha, beta, color
+     * @return beta or alpha if the node is cut, otherwise NO_CUT
+     **/
+    private int probCut(BitBoard board, int depth, int ply, int alpha, int beta, int color) {
+        double threshold = this.probCut.getThreshold();
+        for(ProbCut.Check check : this.probCut.checks(board.getBlackDiscs() + board.getWhiteDiscs(), depth)) {
+            int high = check.highBound(beta, threshold);
+            if(isEvaluation(high)
+                    && negamax(board, check.shallow, ply, high - 1, high, color) >= high)
+                return beta;
+
+            int low = check.lowBound(alpha, threshold);
+            if(isEvaluation(low)
+                    && negamax(board, check.shallow, ply, low, low + 1, color) <= low)
+                return alpha;
+        }
+        return NO_CUT;
+    }
+
+    // Math.abs would leave Integer.MIN_VALUE negative, and a window at it overflows when negated
+    private static boolean isEvaluation(int bound) {
+        return bound > -INFINITY / 2 && bound < INFINITY / 2;
+    }
+
+    // Triangular PV table: the variation of a ply is its move followed by the variation of the next ply.
+    // pv[ply] holds its moves from index ply up to pvLength[ply].
+    private void updatePrincipalVariation(int ply, int square) {
+        int end = this.pvLength[ply + 1];
+
+        this.pv[ply][ply] = square;
+        System.arraycopy(this.pv[ply + 1], ply + 1, this.pv[ply], ply + 1, end - ply - 1);
+        this.pvLength[ply] = end;
+    }
+
+    /**
+     * order
+     * A deterministic search orders the root by the static square prior only, so the best move
+     * among equal scores does not depend on what the other threads put in the table.
+     * Helpers rotate their root moves by their id so that they start on different subtrees.
+     **/
+    private int order(long moves, int ttMove, int ply, int depth, int color) {
+        if(ply == 0 && this.deterministic)
+            return this.orderer.orderStatic(moves, ply);
+
+        int count = this.orderer.order(moves, ttMove, ply, color, depth);
+        if(ply == 0 && this.id > 0)
+            this.orderer.rotate(ply, count, this.id);
+        return count;
+    }
+
+    private int next(int ply, int index, int count) {
+        if(ply == 0 && this.id > 0)
+            return this.orderer.get(ply, index);
+        return this.orderer.next(ply, index, count);
+    }
+
+    /**
+     * probe
+     * Looks the position up in the transposition table.
+     * PV nodes never cut off, so that the principal variation stays complete.
+     * A deterministic search only takes cutoffs from entries of exactly the remaining depth,
+     * deeper entries would give a different (better) score than the fixed-depth search.
+     * @param key, depth, ply, alpha, beta, pvNode
+     * @return CUTOFF if the stored score settles the node (kept in ttScore), otherwise the stored best move or NO_MOVE
+     **/
+    private int probe(long key, int depth, int ply, int alpha, int beta, boolean pvNode) {
+        long entry = this.table.probe(key);
+        this.tableProbes++;
+        if(entry == 0)
+            return BitBoard.NO_MOVE;
+        this.tableHits++;
+
+        int entryDepth = TranspositionTable.depth(entry);
+
+        // The root always has to search, so that it returns a move
+        if(ply > 0 && !pvNode && (this.deterministic ? entryDepth == depth : entryDepth >= depth)) {
+            int score = TranspositionTable.score(entry);
+            int bound = TranspositionTable.bound(entry);
+
+            if(bound == TranspositionTable.EXACT
+                    || (bound == TranspositionTable.LOWER && score >= beta)
+                    || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                this.ttScore = score;
+                return CUTOFF;
+            }
+        }
+        return TranspositionTable.move(entry);
+    }
+
+    private void store(long key, int depth, int alpha, int beta, int score, int square) {
+        // The scores of a cancelled search are not trusted
+        if(this.player.isStopped())
+            return;
+
+        int bound = score <= alpha ? TranspositionTable.UPPER
+                : score >= beta ? TranspositionTable.LOWER
+                : TranspositionTable.EXACT;
+
+        this.table.store(key, depth, bound, score, square);
+    }
+}
@@ -0,0 +1,111 @@
+package othello;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * SpeedupReport
+ *
+ * Measures the parallel search on 1, 2, 4, 8 and 16 threads.
+ * Searches a set of midgame positions to a fixed depth with every thread count and prints
+ * the time, nodes, nodes per second and speedup over one thread.
+ * The positions are searched once untimed before, on one and on two threads, so that every thread count
+ * runs compiled code: a cold first run on one thread would make all the speedups look better than they are.
+ * Also checks that the deterministic search returns the single-threaded move with every thread count.
+ *
+ * Usage: java othello.SpeedupReport [depth] [positions]
+ **/
+public class SpeedupReport {
+    private static final int[] THREADS = {1, 2, 4, 8, 16};
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        List<Board> positions = positions(count);
+
+        System.out.println("Fixed depth " + depth + ", " + positions.size() + " positions");
+        System.out.printf("%8s %10s %12s %10s %8s %14s%n", "Threads", "Time(ms)", "Nodes", "kN/s", "Speedup", "Deterministic");
+
+        for (int threads = 1; threads <= 2; threads++)
+            for (Board position : positions)
+                try (PlayerAB player = player(position, depth, threads, false)) {
+                    player.move(position);
+                }
+
+        List<Move> reference = null;
+        double baseTime = 0;
+        for (int threads : THREADS) {
+            long time = 0;
+            long nodes = 0;
+            for (Board position : positions) {
+                try (PlayerAB player = player(position, depth, threads, false)) {
+                    long start = System.nanoTime();
+                    player.move(position);
+                    time += System.nanoTime() - start;
+                    nodes += player.getNodes();
+                }
+            }
+
+            List<Move> moves = new ArrayList<>();
+            for (Board position : positions) {
+                try (PlayerAB player = player(position, depth, threads, true)) {
+                    moves.add(player.move(position));
+                }
+            }
+            if (reference == null)
+                reference = moves;
+
+            double millis = time / 1e6;
+            if (threads == 1)
+                baseTime = millis;
+            System.out.printf("%8d %10.0f %12d %10.0f %8.2f %14s%n", threads, millis, nodes,
+                    nodes / Math.max(millis, 1e-3), baseTime / millis, sameMoves(reference, moves) ? "match" : "MISMATCH");
+        }
+    }
+
+    private static PlayerAB player(Board position, int depth, int threads, boolean deterministic) {
+        PlayerAB player = new PlayerAB(depth, -position.getLastPlayer(), true);
+        player.setThreads(threads);
+        player.setDeterministic(deterministic);
+        return player;
+    }
+
+    private static boolean sameMoves(List<Move> a, List<Move> b) {
+        for (int i = 0; i < a.size(); i++)
+            if (a.get(i).getRow() != b.get(i).getRow() || a.get(i).getCol() != b.get(i).getCol())
+                return false;
+        return true;
+    }
+
+    /**
+     * positions
+     * Plays 20 random moves from the start, the same games in every run.
+     * @param count
+     * @return midgame positions
+     **/
+    static List<Board> positions(int count) {
+        Random random = new Random(2022);
+        List<Board> positions = new ArrayList<>();
+
+        while (positions.size() < count) {
+            Board board = new Board();
+            int color = Board.B;
+            for (int ply = 0; ply < 20 && (board.canPlay(Board.B) || board.canPlay(Board.W)); ply++) {
+                if (!board.canPlay(color)) {
+                    board.setLastPlayer(color);
+                    color = -color;
+                }
+                long moves = board.getBitBoard().legalMoves(color);
+                for (int skip = random.nextInt(Long.bitCount(moves)); skip > 0; skip--)
+                    moves &= moves - 1;
+                int square = Long.numberOfTrailingZeros(moves);
+                board.placeDisk(BitBoard.row(square), BitBoard.col(square), color);
+                color = -color;
+            }
+            if (board.canPlay(color))
+                positions.add(board);
+        }
+        return positions;
+    }
+}
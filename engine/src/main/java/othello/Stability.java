@@ -0,0 +1,173 @@
+package othello;
+
+/**
+ * Stability
+ *
+ * Finds stable discs: discs that no sequence of moves can flip.
+ * A disc is stable when, in each of the four line directions, its line is full or it touches a stable disc
+ * of its own color. Edge discs can only be flipped along their edge, and the stable discs of an edge are
+ * looked up in a table computed by playing out every edge position on its own.
+ * Stability starts from the edges and the discs with four full lines and spreads inwards until nothing changes.
+ *
+ * The result is a lower bound: some discs that are stable in the game are not found.
+ * Stable discs bound the final score (a player with s stable discs ends with at least s discs),
+ * which the searches use to cut nodes whose window the score cannot reach.
+ **/
+public final class Stability {
+    // The inner 6x6 squares, every other square is on an edge
+    private static final long CENTRE = 0x007E7E7E7E7E7E00L;
+
+    // Maps the 8 discs of a column on the bits of a byte and back
+    private static final long FILE_TO_BYTE = 0x0102040810204080L;
+    private static final long[] BYTE_TO_FILE = new long[256];
+
+    // The squares of the 15 diagonals in each direction
+    private static final long[] DIAGONALS_7 = new long[15];
+    private static final long[] DIAGONALS_9 = new long[15];
+
+    // The stable player discs of every edge: index player discs * 256 + opponent discs
+    private static final byte[] EDGE_STABLE = new byte[256 * 256];
+
+    static {
+        for (int line = 0; line < 256; line++)
+            for (int i = 0; i < 8; i++)
+                if ((line & (1 << i)) != 0)
+                    BYTE_TO_FILE[line] |= 1L << (i * 8);
+
+        for (int square = 0; square < 64; square++) {
+            int row = BitBoard.row(square), col = BitBoard.col(square);
+            DIAGONALS_7[row + col] |= 1L << square;
+            DIAGONALS_9[row - col + 7] |= 1L << square;
+        }
+
+        // Every move fills an empty square, so the edges are filled in by their number of empty squares
+        for (int empties = 0; empties <= 8; empties++)
+            for (int player = 0; player < 256; player++)
+                for (int opponent = 0; opponent < 256; opponent++)
+                    if ((player & opponent) == 0 && 8 - Integer.bitCount(player | opponent) == empties)
+                        EDGE_STABLE[player * 256 + opponent] = (byte) edgeStable(player, opponent);
+    }
+
+    private Stability() {
+    }
+
+    /**
+     * stable
+     * @param player, opponent the discs of both sides
+     * @return the stable discs of the player
+     **/
+    public static long stable(long player, long opponent) {
+        long discs = player | opponent;
+        long fullH = fullRows(discs);
+        long fullV = fullColumns(discs);
+        long full7 = fullDiagonals(discs, DIAGONALS_7);
+        long full9 = fullDiagonals(discs, DIAGONALS_9);
+        long centre = player & CENTRE;
+
+        long stable = edges(player, opponent) | (centre & fullH & fullV & full7 & full9);
+        if (stable == 0)
+            return 0;
+
+        // Wrapped shifts only reach edge squares, which are masked off by the centre
+        long previous;
+        do {
+            previous = stable;
+            long stableH = (stable >>> 1) | (stable << 1) | fullH;
+            long stableV = (stable >>> 8) | (stable << 8) | fullV;
+            long stable7 = (stable >>> 7) | (stable << 7) | full7;
+            long stable9 = (stable >>> 9) | (stable << 9) | full9;
+            stable |= centre & stableH & stableV & stable7 & stable9;
+        } while (stable != previous);
+        return stable;
+    }
+
+    /**
+     * count
+     * @param player, opponent
+     * @return the number of stable discs of the player
+     **/
+    public static int count(long player, long opponent) {
+        return Long.bitCount(stable(player, opponent));
+    }
+
+    // The stable player discs of the four edges
+    private static long edges(long player, long opponent) {
+        long stable = edge((int) (player & 0xFF), (int) (opponent & 0xFF))
+                | (long) edge((int) (player >>> 56), (int) (opponent >>> 56)) << 56;
+        stable |= BYTE_TO_FILE[edge(column(player, 0), column(opponent, 0))];
+        stable |= BYTE_TO_FILE[edge(column(player, 7), column(opponent, 7))] << 7;
+        return stable;
+    }
+
+    private static int edge(int player, int opponent) {
+        return EDGE_STABLE[player * 256 + opponent] & 0xFF;
+    }
+
+    private static int column(long discs, int col) {
+        return (int) ((((discs >>> col) & BitBoard.FILE_A) * FILE_TO_BYTE) >>> 56);
+    }
+
+    // Every square of a full row: the row's bits are and-ed down into column A
+    private static long fullRows(long discs) {
+        long full = discs & (discs >>> 4);
+        full &= full >>> 2;
+        full &= full >>> 1;
+        return (full & BitBoard.FILE_A) * 0xFF;
+    }
+
+    // Every square of a full column: rotating by whole rows and-s all the rows into each
+    private static long fullColumns(long discs) {
+        long full = discs & Long.rotateRight(discs, 32);
+        full &= Long.rotateRight(full, 16);
+        return full & Long.rotateRight(full, 8);
+    }
+
+    private static long fullDiagonals(long discs, long[] diagonals) {
+        long full = 0;
+        for (long diagonal : diagonals)
+            if ((discs & diagonal) == diagonal)
+                full |= diagonal;
+        return full;
+    }
+
+    /**
+     * edgeStable
+     * A move on an empty square of the edge by either side, whether it flips or not, leads to an edge
+     * with one empty square less. The player discs that stay stable after every such move are stable.
+     * @param player, opponent discs of the edge
+     * @return the stable player discs
+     **/
+    private static int edgeStable(int player, int opponent) {
+        int stable = player;
+        int empty = ~(player | opponent) & 0xFF;
+        for (; empty != 0 && stable != 0; empty &= empty - 1) {
+            int square = Integer.numberOfTrailingZeros(empty);
+            int bit = 1 << square;
+
+            int flipped = edgeFlips(square, player, opponent);
+            stable &= edge(player | bit | flipped, opponent & ~flipped);
+            flipped = edgeFlips(square, opponent, player);
+            stable &= edge(player & ~flipped, opponent | bit | flipped);
+        }
+        return stable;
+    }
+
+    // The discs a move on the square flips along the edge
+    private static int edgeFlips(int square, int player, int opponent) {
+        int flipped = 0;
+        int run = 0;
+        int i = square - 1;
+        for (; i >= 0 && (opponent & (1 << i)) != 0; i--)
+            run |= 1 << i;
+        if (i >= 0 && (player & (1 << i)) != 0)
+            flipped |= run;
+
+        run = 0;
+        i = square + 1;
+        for (; i < 8 && (opponent & (1 << i)) != 0; i++)
+            run |= 1 << i;
+        if (i < 8 && (player & (1 << i)) != 0)
+            flipped |= run;
+        return flipped;
+    }
+}
@@ -0,0 +1,429 @@
+package othello;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Tournament
+ *
+ * Plays games between two engine configurations without a board on the screen, to measure a change.
+ * Every opening is played twice with the colors swapped, and the games run concurrently on a pool of workers.
+ * Prints the wins, draws and losses of engine A with its Elo difference and a sequential probability
+ * ratio test (SPRT), and for both engines the nodes per second and the percentiles of the time per move.
+ *
+ * Usage: java othello.Tournament [-a spec] [-b spec] [-games n] [-workers n] [-plies n] [-balanced]
+ *                                [-seed n] [-sprt elo0,elo1] [-record file]
+ * An engine spec is a comma separated list of depth=, time= (ms per move), eval= (default or a pattern
+ * weights file), hash= (MB), threads=, empties= (endgame solver threshold), book= (opening book file),
+ * probcut= (Multi-ProbCut parameters file), threshold= (its cut threshold), weights= (LinearEvaluator weights
+ * file, instead of the pattern weights) and stability= (the stability weight of the LinearEvaluator, replacing
+ * the one of weights=, 0 for none), for example "depth=6,eval=patterns.bin".
+ * Openings are random moves from the start, -balanced keeps only openings that a shallow search finds even.
+ * With -sprt the tournament stops as soon as the test accepts either hypothesis, cancelling the games still running.
+ * With -record every game is written to a compressed game file (see RecordFile) as it finishes.
+ **/
+public final class Tournament {
+    private static final double SPRT_ALPHA = 0.05;
+    private static final double SPRT_BETA = 0.05;
+
+    // Balanced openings score within this much in a depth BALANCE_DEPTH search
+    private static final int BALANCE_DEPTH = 4;
+    private static final int BALANCE_MARGIN = 30;
+
+    private Tournament() {
+    }
+
+    /**
+     * Engine
+     * A PlayerAB configuration, creates a new player for every game.
+     **/
+    static final class Engine {
+        final String spec;
+        int depth = PlayerAB.MAX_DEPTH;
+        long moveTime;
+        int hashSizeMB = 16;
+        int threads = 1;
+        int endgameEmpties = PlayerAB.DEFAULT_ENDGAME_EMPTIES;
+        String evaluator = "default";
+        String book;
+        String probCutFile;
+        double threshold;
+        Integer stability;
+        String linearWeights;
+
+        private PatternWeights weights;
+        private OpeningBook openingBook;
+        private ProbCut probCut;
+        private LinearEvaluator linear;
+
+        Engine(String spec) {
+            this.spec = spec;
+            for (String option : spec.split(",")) {
+                String[] keyValue = option.split("=", 2);
+                if (keyValue.length != 2)
+                    throw new IllegalArgumentException("Expected key=value in engine spec: " + option);
+
+                String value = keyValue[1].trim();
+                switch (keyValue[0].trim()) {
+                    case "depth" -> this.depth = Integer.parseInt(value);
+                    case "time" -> this.moveTime = Long.parseLong(value);
+                    case "hash" -> this.hashSizeMB = Integer.parseInt(value);
+                    case "threads" -> this.threads = Integer.parseInt(value);
+                    case "empties" -> this.endgameEmpties = Integer.parseInt(value);
+                    case "eval" -> this.evaluator = value;
+                    case "book" -> this.book = value;
+                    case "probcut" -> this.probCutFile = value;
+                    case "threshold" -> this.threshold = Double.parseDouble(value);
+                    case "stability" -> this.stability = Integer.parseInt(value);
+                    case "weights" -> this.linearWeights = value;
+                    default -> throw new IllegalArgumentException("Unknown engine option " + keyValue[0]);
+                }
+            }
+            if (this.depth < 1 || this.depth > PlayerAB.MAX_DEPTH)
+                throw new IllegalArgumentException("Engine depth must be 1 to " + PlayerAB.MAX_DEPTH + ": " + spec);
+            if (this.depth == PlayerAB.MAX_DEPTH && this.moveTime == 0)
+                throw new IllegalArgumentException("Engine needs a depth or a time: " + spec);
+
+            // Files are loaded once and shared read-only by the players of every game
+            try {
+                if (!this.evaluator.equals("default"))
+                    this.weights = PatternWeights.load(Paths.get(this.evaluator));
+                if (this.book != null)
+                    this.openingBook = OpeningBook.load(Paths.get(this.book));
+                if (this.probCutFile != null)
+                    this.probCut = ProbCut.load(Paths.get(this.probCutFile));
+                if (this.linearWeights != null)
+                    this.linear = LinearEvaluator.load(Paths.get(this.linearWeights));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            // Stable discs are a feature of the LinearEvaluator, the pattern evaluation has no such weight
+            if (this.stability != null) {
+                if (this.weights != null)
+                    throw new IllegalArgumentException("stability= needs the LinearEvaluator, not eval=: " + spec);
+                int[] linearWeights = this.linear != null ? this.linear.getWeights()
+                        : LinearEvaluator.DEFAULT_WEIGHTS.clone();
+                linearWeights[LinearEvaluator.STABILITY] = this.stability;
+                this.linear = new LinearEvaluator(linearWeights);
+            }
+        }
+
+        PlayerAB create(int color) {
+            PlayerAB player = new PlayerAB(this.depth, color, true);
+            player.setMoveTime(this.moveTime);
+            player.setHashSize(this.hashSizeMB);
+            player.setThreads(this.threads);
+            player.setEndgameEmpties(this.endgameEmpties);
+            player.setOpeningBook(this.openingBook);
+            player.setProbCut(this.probCut != null && this.threshold > 0
+                    ? this.probCut.withThreshold(this.threshold) : this.probCut);
+            player.setEvaluator(this.linear != null ? this.linear
+                    : this.weights != null ? new PatternEvaluator(this.weights) : Evaluator.DEFAULT);
+            return player;
+        }
+    }
+
+    /**
+     * Result
+     * One game, from the point of view of engine A.
+     **/
+    static final class Result {
+        double score;           // 1 win, 0.5 draw, 0 loss
+        BitBoard opening;
+        final int[] moves = new int[RecordFile.MAX_MOVES];      // Squares and passes
+        int moveCount;
+        final long[] nodes = new long[2];
+        final long[] nanos = new long[2];
+        final List<List<Long>> latencies = List.of(new ArrayList<>(), new ArrayList<>());
+    }
+
+    /**
+     * Cancellation
+     * Stops the games of a tournament: the running searches are stopped and the games end before their next move.
+     **/
+    static final class Cancellation {
+        private final Set<PlayerAB> players = ConcurrentHashMap.newKeySet();
+        private volatile boolean cancelled;
+
+        void cancel() {
+            this.cancelled = true;
+            this.players.forEach(PlayerAB::stop);
+        }
+
+        boolean isCancelled() {
+            return this.cancelled;
+        }
+    }
+
+    /**
+     * play
+     * Plays one game from the given opening.
+     * @param a, b, opening, aColor color of engine A, cancellation of the tournament
+     * @return the result for engine A, null if the game was cancelled
+     **/
+    static Result play(Engine a, Engine b, BitBoard opening, int aColor, Cancellation cancellation) {
+        Result result = new Result();
+        result.opening = opening;
+        Board board = new Board(new BitBoard(opening));
+        int color = -opening.getLastPlayer();
+        try (PlayerAB aPlayer = a.create(aColor); PlayerAB bPlayer = b.create(-aColor)) {
+            cancellation.players.add(aPlayer);
+            cancellation.players.add(bPlayer);
+            try {
+                while (board.canPlay(Board.B) || board.canPlay(Board.W)) {
+                    // Also catches a cancel that came before the players were added or between two searches
+                    if (cancellation.isCancelled())
+                        return null;
+                    if (!board.canPlay(color)) {
+                        board.setLastPlayer(color);
+                        result.moves[result.moveCount++] = BitBoard.PASS;
+                        color = -color;
+                        continue;
+                    }
+
+                    int engine = color == aColor ? 0 : 1;
+                    PlayerAB player = engine == 0 ? aPlayer : bPlayer;
+                    long start = System.nanoTime();
+                    Move move = player.move(board);
+                    long nanos = System.nanoTime() - start;
+
+                    result.nanos[engine] += nanos;
+                    result.nodes[engine] += player.getNodes();
+                    result.latencies.get(engine).add(nanos);
+
+                    board.placeDisk(move.getRow(), move.getCol(), color);
+                    board.setLastPlayer(color);
+                    result.moves[result.moveCount++] = move.getRow() * 8 + move.getCol();
+                    color = -color;
+                }
+            } finally {
+                cancellation.players.remove(aPlayer);
+                cancellation.players.remove(bPlayer);
+            }
+        }
+
+        BitBoard end = board.getBitBoard();
+        int discs = (end.getBlackDiscs() - end.getWhiteDiscs()) * aColor;
+        result.score = discs > 0 ? 1 : discs == 0 ? 0.5 : 0;
+        return result;
+    }
+
+    /**
+     * openings
+     * @param count, plies random moves from the start, balanced keep only even openings, seed
+     * @return the openings, the same for the same arguments
+     **/
+    static List<BitBoard> openings(int count, int plies, boolean balanced, long seed) {
+        Random random = new Random(seed);
+        List<BitBoard> openings = new ArrayList<>();
+
+        while (openings.size() < count) {
+            BitBoard board = new BitBoard();
+            int color = Board.B;
+            for (int ply = 0; ply < plies; ply++) {
+                long moves = board.legalMoves(color);
+                if (moves == 0)
+                    break;
+                for (int skip = random.nextInt(Long.bitCount(moves)); skip > 0; skip--)
+                    moves &= moves - 1;
+                board.placeDisk(Long.numberOfTrailingZeros(moves), color);
+                color = -color;
+            }
+            if (!board.canPlay(color))
+                continue;
+
+            BitBoard opening = new BitBoard(board.getBlack(), board.getWhite(), -color);
+            if (balanced) {
+                try (PlayerAB player = new PlayerAB(BALANCE_DEPTH, color, true)) {
+                    player.setHashSize(1);
+                    if (Math.abs(player.move(new Board(new BitBoard(opening))).getValue()) > BALANCE_MARGIN)
+                        continue;
+                }
+            }
+            openings.add(opening);
+        }
+        return openings;
+    }
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        String aSpec = "depth=6", bSpec = "depth=5";
+        int games = 100, workers = Runtime.getRuntime().availableProcessors(), plies = 8;
+        boolean balanced = false;
+        long seed = 1;
+        double[] sprt = null;
+        String record = null;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-a" -> aSpec = args[++i];
+                case "-b" -> bSpec = args[++i];
+                case "-games" -> games = Integer.parseInt(args[++i]);
+                case "-workers" -> workers = Integer.parseInt(args[++i]);
+                case "-plies" -> plies = Integer.parseInt(args[++i]);
+                case "-balanced" -> balanced = true;
+                case "-seed" -> seed = Long.parseLong(args[++i]);
+                case "-sprt" -> sprt = Arrays.stream(args[++i].split(",")).mapToDouble(Double::parseDouble).toArray();
+                case "-record" -> record = args[++i];
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        Engine a = new Engine(aSpec), b = new Engine(bSpec);
+        List<BitBoard> openings = openings((games + 1) / 2, plies, balanced, seed);
+        System.out.printf("A: %s%nB: %s%n%d games, %d workers, %d-ply %s openings%n",
+                a.spec, b.spec, games, workers, plies, balanced ? "balanced" : "random");
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        Cancellation cancellation = new Cancellation();
+        CompletionService<Result> completed = new ExecutorCompletionService<>(pool);
+        for (int game = 0; game < games; game++) {
+            BitBoard opening = openings.get(game / 2);
+            int aColor = game % 2 == 0 ? Board.B : Board.W;
+            completed.submit(() -> play(a, b, opening, aColor, cancellation));
+        }
+
+        Stats stats = new Stats();
+        RecordWriter recorder = record != null ? RecordWriter.create(Paths.get(record), RecordFile.GAMES, true) : null;
+        try {
+            for (int game = 0; game < games; game++) {
+                Result result = completed.take().get();
+                stats.add(result);
+                if (recorder != null) {
+                    BitBoard opening = result.opening;
+                    recorder.writeGame(opening.getBlack(), opening.getWhite(), -opening.getLastPlayer(),
+                            result.moves, result.moveCount);
+                }
+                if (sprt != null && stats.sprt(sprt[0], sprt[1]) != 0) {
+                    System.out.println("SPRT finished after " + stats.games() + " games");
+                    break;
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Game failed", e.getCause());
+        } finally {
+            cancellation.cancel();
+            pool.shutdownNow();
+            if (recorder != null)
+                recorder.close();
+        }
+
+        stats.print(sprt);
+    }
+
+    /**
+     * Stats
+     * The results of the games played so far.
+     **/
+    static final class Stats {
+        int wins, draws, losses;
+        final long[] nodes = new long[2];
+        final long[] nanos = new long[2];
+        final List<List<Long>> latencies = List.of(new ArrayList<>(), new ArrayList<>());
+
+        void add(Result result) {
+            if (result.score == 1) wins++;
+            else if (result.score == 0) losses++;
+            else draws++;
+
+            for (int engine = 0; engine < 2; engine++) {
+                this.nodes[engine] += result.nodes[engine];
+                this.nanos[engine] += result.nanos[engine];
+                this.latencies.get(engine).addAll(result.latencies.get(engine));
+            }
+        }
+
+        int games() {
+            return this.wins + this.draws + this.losses;
+        }
+
+        double score() {
+            return (this.wins + 0.5 * this.draws) / games();
+        }
+
+        // Variance of the score of one game
+        private double variance() {
+            double score = score();
+            return (this.wins * Math.pow(1 - score, 2) + this.draws * Math.pow(0.5 - score, 2)
+                    + this.losses * Math.pow(score, 2)) / games();
+        }
+
+        /**
+         * sprt
+         * Log-likelihood ratio of "A is elo1 stronger" against "A is elo0 stronger", in the normal approximation.
+         * @param elo0, elo1
+         * @return 1 if H1 is accepted, -1 if H0 is accepted, 0 to continue
+         **/
+        int sprt(double elo0, double elo1) {
+            double llr = llr(elo0, elo1);
+            if (llr >= Math.log((1 - SPRT_BETA) / SPRT_ALPHA))
+                return 1;
+            if (llr <= Math.log(SPRT_BETA / (1 - SPRT_ALPHA)))
+                return -1;
+            return 0;
+        }
+
+        double llr(double elo0, double elo1) {
+            double variance = variance();
+            if (variance == 0)
+                return 0;
+            double s0 = expectedScore(elo0), s1 = expectedScore(elo1);
+            return games() * (s1 - s0) * (2 * score() - s0 - s1) / (2 * variance);
+        }
+
+        void print(double[] sprt) {
+            int games = games();
+            double score = score();
+            double margin = 1.96 * Math.sqrt(variance() / games);
+            System.out.printf("%nA wins %d, draws %d, losses %d of %d games, score %.1f%%%n",
+                    this.wins, this.draws, this.losses, games, 100 * score);
+            System.out.printf("Elo difference %+.1f (95%% %+.1f to %+.1f)%n",
+                    elo(score), elo(score - margin), elo(score + margin));
+            if (sprt != null) {
+                int result = sprt(sprt[0], sprt[1]);
+                System.out.printf("SPRT elo0 %.1f, elo1 %.1f: LLR %.2f (%.2f, %.2f) %s%n", sprt[0], sprt[1],
+                        llr(sprt[0], sprt[1]), Math.log(SPRT_BETA / (1 - SPRT_ALPHA)),
+                        Math.log((1 - SPRT_BETA) / SPRT_ALPHA),
+                        result > 0 ? "H1 accepted" : result < 0 ? "H0 accepted" : "inconclusive");
+            }
+
+            System.out.printf("%n%-6s %10s %10s %10s %10s %10s%n", "Engine", "kN/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+            for (int engine = 0; engine < 2; engine++) {
+                List<Long> latencies = this.latencies.get(engine);
+                latencies.sort(null);
+                System.out.printf("%-6s %10.0f %10.2f %10.2f %10.2f %10.2f%n", engine == 0 ? "A" : "B",
+                        this.nodes[engine] / Math.max(this.nanos[engine] / 1e6, 1e-3),
+                        percentile(latencies, 50), percentile(latencies, 90), percentile(latencies, 99),
+                        percentile(latencies, 100));
+            }
+        }
+
+        private static double percentile(List<Long> sorted, double percent) {
+            if (sorted.isEmpty())
+                return 0;
+            int index = (int) Math.ceil(percent / 100 * sorted.size()) - 1;
+            return sorted.get(Math.max(0, index)) / 1e6;
+        }
+    }
+
+    static double expectedScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    static double elo(double score) {
+        score = Math.min(Math.max(score, 1e-6), 1 - 1e-6);
+        return -400 * Math.log10(1 / score - 1);
+    }
+}
@@ -0,0 +1,213 @@
+package othello;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * TranspositionTable
+ *
+ * A fixed-size hash table of search results, stored in a buffer of longs (a key and a data word per slot)
+ * so that no objects are allocated per entry.
+ * Entries are grouped in buckets of two: the first slot keeps the deepest result (depth-preferred)
+ * and the second slot is always replaced.
+ * Each data word packs the score, depth, bound type, best move and the age of the search that stored it.
+ *
+ * The table is shared by the search threads without locks. The key slot holds key XOR data,
+ * so an entry torn by two threads writing at once fails the key check and reads as a miss.
+ * Aging belongs to the owner of the table, not to the searches that use it: a player ages the table it made
+ * at every move, a table shared by many players (EngineService) is aged by whoever shares it.
+ * newSearch() is atomic, so it may still be called while other threads search.
+ *
+ * A table can also be memory-mapped from a file with open(), so its results survive restarts:
+ * Zobrist keys are the same in every run, and the age is kept in the file so that entries of earlier runs
+ * are replaced first. The operating system writes the table back, flush() forces it to the disk.
+ * The scores are those of the evaluation that stored them, a file belongs to one evaluation.
+ *
+ * File format, little-endian:
+ * int magic "OTHT", int version, int buckets, int age, then the slots of every bucket: long key, long data.
+ **/
+public class TranspositionTable {
+    public static final int EXACT = 0;
+    public static final int LOWER = 1;
+    public static final int UPPER = 2;
+
+    private static final int ENTRY_BYTES = 16;
+    private static final long VALID = 1L << 63;
+
+    private static final int MAGIC = 0x5448544F;    // "OTHT"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int AGE_OFFSET = 12;
+    private static final int MAX_FILE_BUCKETS = 1 << 25;   // A mapping is at most 2 GB
+
+    // Slots of a bucket, each a key and a data long
+    private final LongBuffer slots;
+    private final int bucketMask;
+    private final MappedByteBuffer file;
+    private volatile int age;
+
+    /**
+     * TranspositionTable
+     * @param sizeMB size of the table in megabytes, rounded down to a power of two number of buckets
+     **/
+    public TranspositionTable(int sizeMB) {
+        this(LongBuffer.allocate(4 * buckets(sizeMB)), buckets(sizeMB), null, 0);
+    }
+
+    private TranspositionTable(LongBuffer slots, int buckets, MappedByteBuffer file, int age) {
+        this.slots = slots;
+        this.bucketMask = buckets - 1;
+        this.file = file;
+        this.age = age;
+    }
+
+    // A power of two that fits the size, at most 2^28 so that every slot has an int index
+    private static int buckets(long sizeMB) {
+        long buckets = Long.highestOneBit(Math.max(1, (sizeMB << 20) / (2 * ENTRY_BYTES)));
+        return (int) Math.min(buckets, 1 << 28);
+    }
+
+    /**
+     * open
+     * Maps the table of the file, or creates the file with an empty table of the given size.
+     * An existing table keeps the size it was created with.
+     * @param path, sizeMB size of a new table
+     * @return the table, shared with the file
+     * @throws IOException if the file can't be mapped or is not a transposition table
+     **/
+    public static TranspositionTable open(Path path, int sizeMB) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            int buckets;
+            if (channel.size() == 0) {
+                buckets = Math.min(buckets(sizeMB), MAX_FILE_BUCKETS);
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).putInt(buckets).putInt(0).flip();
+                while (header.hasRemaining())
+                    channel.write(header);
+                // The slots read as zeros (empty) until written
+                channel.write(ByteBuffer.allocate(1), HEADER_BYTES + (long) buckets * 2 * ENTRY_BYTES - 1);
+            }
+
+            MappedByteBuffer file = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            file.order(ByteOrder.LITTLE_ENDIAN);
+            if (channel.size() < HEADER_BYTES || file.getInt(0) != MAGIC)
+                throw new IOException(path + " is not a transposition table");
+            if (file.getInt(4) != VERSION)
+                throw new IOException(path + " has version " + file.getInt(4) + ", expected " + VERSION);
+
+            buckets = file.getInt(8);
+            if (buckets < 1 || buckets > MAX_FILE_BUCKETS || Integer.bitCount(buckets) != 1
+                    || channel.size() != HEADER_BYTES + (long) buckets * 2 * ENTRY_BYTES)
+                throw new IOException(path + " is truncated");
+
+            LongBuffer slots = file.slice(HEADER_BYTES, buckets * 2 * ENTRY_BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+            return new TranspositionTable(slots, buckets, file, file.getInt(AGE_OFFSET));
+        }
+    }
+
+    /**
+     * flush
+     * Writes a table mapped from a file to the disk. Does nothing for a table in memory.
+     **/
+    public void flush() {
+        if (this.file != null)
+            this.file.force();
+    }
+
+    /**
+     * newSearch
+     * Ages the table, so entries of earlier searches get replaced before the current ones.
+     * The age of a mapped table is written to its file in the same step.
+     **/
+    public synchronized void newSearch() {
+        this.age = (this.age + 1) & 0xFF;
+        if (this.file != null)
+            this.file.putInt(AGE_OFFSET, this.age);
+    }
+
+    public void clear() {
+        for (int i = 0; i < this.slots.capacity(); i++)
+            this.slots.put(i, 0);
+    }
+
+    /**
+     * probe
+     * @param key hash of the position
+     * @return the data word of the entry, or 0 if the position is not in the table
+     **/
+    public long probe(long key) {
+        int index = ((int) key & this.bucketMask) << 2;
+
+        long entry = this.slots.get(index + 1);
+        if (entry != 0 && (this.slots.get(index) ^ entry) == key)
+            return entry;
+
+        entry = this.slots.get(index + 3);
+        if (entry != 0 && (this.slots.get(index + 2) ^ entry) == key)
+            return entry;
+        return 0;
+    }
+
+    /**
+     * store
+     * Stores a search result. Goes to the depth-preferred slot when it is at least as deep as
+     * the entry there (or that entry is stale), and to the always-replace slot otherwise.
+     * @param key, depth, bound, score, move
+     **/
+    public void store(long key, int depth, int bound, int score, int move) {
+        int index = ((int) key & this.bucketMask) << 2;
+        int age = this.age;
+        long entry = pack(depth, bound, score, move, age);
+        long preferred = this.slots.get(index + 1);
+
+        if (preferred == 0 || (this.slots.get(index) ^ preferred) == key
+                || depth >= depth(preferred) || age(preferred) != age) {
+            this.slots.put(index, key ^ entry);
+            this.slots.put(index + 1, entry);
+        } else {
+            this.slots.put(index + 2, key ^ entry);
+            this.slots.put(index + 3, entry);
+        }
+    }
+
+    private static long pack(int depth, int bound, int score, int move, int age) {
+        return VALID
+                | (long) age << 49
+                | (long) (move & 0x7F) << 42
+                | (long) bound << 40
+                | (long) (depth & 0xFF) << 32
+                | (score & 0xFFFFFFFFL);
+    }
+
+
+    /* Entry Fields */
+
+    public static int score(long entry) {
+        return (int) entry;
+    }
+
+    public static int depth(long entry) {
+        return (int) (entry >>> 32) & 0xFF;
+    }
+
+    public static int bound(long entry) {
+        return (int) (entry >>> 40) & 0x3;
+    }
+
+    public static int move(long entry) {
+        int move = (int) (entry >>> 42) & 0x7F;
+        return move == 0x7F ? BitBoard.NO_MOVE : move;
+    }
+
+    static int age(long entry) {
+        return (int) (entry >>> 49) & 0xFF;
+    }
+}
@@ -0,0 +1,391 @@
+package othello;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tuner
+ *
+ * Fits the weights of LinearEvaluator to the outcomes of recorded games (see RecordFile), like the ones
+ * Tournament -record writes. Every position before a move is a sample, labelled with the end of its game.
+ * Two targets:
+ * RESULT fits the game result (win 1, draw 1/2, loss 0) by logistic regression on scale * score,
+ * DISCS fits the final disc difference by least squares regression on scale * score.
+ * The scale is fitted first, with the starting weights held, so that the fitted weights stay in the units
+ * of the evaluation (and of the win, pass and search constants that don't change).
+ *
+ * Both are solved with Newton's method, every step a pass over the samples that adds up the loss,
+ * its gradient and its Hessian. The samples are split among the threads, each with its own accumulators,
+ * which are added together once the pass is over. Least squares is solved by the first step.
+ * Features are computed once, as the games are read, and kept a byte each: a position takes 9 bytes,
+ * so tens of millions of positions fit in memory and a pass over them takes a fraction of a second per thread.
+ *
+ * Usage: java othello.Tuner [-target result|discs] [-threads n] [-iterations n] [-min-discs n]
+ *                           [-start file] [-out file] games...
+ * Positions with fewer than -min-discs discs are left out, the openings say little about the result.
+ * Writes the weights to evaluation.txt by default, which the game loads at startup (see Main).
+ **/
+public final class Tuner {
+    public static final int RESULT = 0;
+    public static final int DISCS = 1;
+
+    private static final int DEFAULT_ITERATIONS = 20;
+    private static final int DEFAULT_MIN_DISCS = 12;
+
+    // A step that improves the loss by less than this (relative) ends the fit
+    private static final double CONVERGED = 1e-7;
+    private static final int LINE_SEARCH_STEPS = 10;
+    // Added to the diagonal of the Hessian, per sample, for features that never or always move together
+    private static final double RIDGE = 1e-9;
+
+    private static final int FEATURES = LinearEvaluator.FEATURES;
+
+    private final int target;
+    private final ExecutorService pool;
+    private final int threads;
+
+    private byte[] features = new byte[FEATURES << 16];
+    private byte[] labels = new byte[1 << 16];     // Final disc difference for black
+    private int samples;
+
+    /**
+     * Tuner
+     * @param target RESULT or DISCS, pool runs the passes, threads number of threads in the pool
+     **/
+    Tuner(int target, ExecutorService pool, int threads) {
+        this.target = target;
+        this.pool = pool;
+        this.threads = threads;
+    }
+
+    /**
+     * load
+     * Replays the games of a game file and adds the positions before their moves as samples.
+     * @param path, minDiscs positions with fewer discs are left out
+     * @throws IOException if the file can't be read or is not a game file
+     **/
+    void load(Path path, int minDiscs) throws IOException {
+        long[] black = new long[RecordFile.MAX_MOVES], white = new long[RecordFile.MAX_MOVES];
+        // The positions of a game are extracted in one batch
+        int[][] values = new int[FEATURES][RecordFile.MAX_MOVES];
+        boolean[] over = new boolean[RecordFile.MAX_MOVES];
+
+        try (RecordReader reader = RecordReader.open(path)) {
+            if (reader.getKind() != RecordFile.GAMES)
+                throw new IOException(path + " is not a game file");
+            while (reader.next()) {
+                BitBoard board = reader.toBitBoard();
+                int color = reader.getColor();
+                int positions = 0;
+                for (int i = 0; i < reader.getMoveCount(); i++) {
+                    int move = reader.getMove(i);
+                    if (move != BitBoard.PASS) {
+                        black[positions] = board.getBlack();
+                        white[positions++] = board.getWhite();
+                        board.placeDisk(move, color);
+                    }
+                    color = -color;
+                }
+
+                int discs = board.getBlackDiscs() - board.getWhiteDiscs();
+                BatchEvaluator.features(black, white, positions, values, over);
+                for (int i = 0; i < positions; i++)
+                    if (Long.bitCount(black[i] | white[i]) >= minDiscs && !over[i])
+                        add(values, i, discs);
+            }
+        }
+    }
+
+    private void add(int[][] values, int position, int discs) {
+        if (this.samples == this.labels.length) {
+            this.labels = Arrays.copyOf(this.labels, this.samples * 2);
+            this.features = Arrays.copyOf(this.features, this.samples * 2 * FEATURES);
+        }
+        int offset = this.samples * FEATURES;
+        for (int feature = 0; feature < FEATURES; feature++)
+            this.features[offset + feature] = (byte) values[feature][position];
+        this.labels[this.samples++] = (byte) discs;
+    }
+
+    int getSamples() {
+        return this.samples;
+    }
+
+    /**
+     * fitScale
+     * Newton's method on the scale alone, the weights held, with the step halved while it makes the loss
+     * worse or the scale not positive.
+     * @param weights, scale to start from
+     * @return the scale of the lowest loss
+     **/
+    double fitScale(double[] weights, double scale) throws InterruptedException {
+        Pass pass = pass(weights, scale);
+        for (int iteration = 0; iteration < DEFAULT_ITERATIONS; iteration++) {
+            double step = pass.scaleGradient / pass.scaleHessian;
+            double next = scale;
+            Pass nextPass = null;
+            for (int halving = 0; halving < LINE_SEARCH_STEPS; halving++, step /= 2) {
+                next = scale - step;
+                if (next <= 0)
+                    continue;
+                nextPass = pass(weights, next);
+                if (nextPass.loss <= pass.loss)
+                    break;
+            }
+            if (nextPass == null || nextPass.loss > pass.loss)
+                break;
+
+            boolean converged = pass.loss - nextPass.loss < CONVERGED * pass.loss;
+            scale = next;
+            pass = nextPass;
+            if (converged)
+                break;
+        }
+        return scale;
+    }
+
+    /**
+     * fit
+     * Newton's method on the weights, with the step halved while it makes the loss worse.
+     * @param weights to start from, scale, iterations most steps
+     * @return the fitted weights
+     **/
+    double[] fit(double[] weights, double scale, int iterations) throws InterruptedException {
+        weights = weights.clone();
+        Pass pass = pass(weights, scale);
+        System.out.printf(Locale.ROOT, "start: loss %.6f%n", pass.loss / this.samples);
+
+        for (int iteration = 1; iteration <= iterations; iteration++) {
+            double[] hessian = pass.hessian.clone();
+            for (int feature = 0; feature < FEATURES; feature++)
+                hessian[feature * FEATURES + feature] += RIDGE * this.samples;
+            double[] step = solve(hessian, pass.gradient.clone());
+
+            Pass nextPass = null;
+            double[] next = new double[FEATURES];
+            for (int halving = 0; halving < LINE_SEARCH_STEPS; halving++) {
+                for (int feature = 0; feature < FEATURES; feature++)
+                    next[feature] = weights[feature] - step[feature];
+                nextPass = pass(next, scale);
+                if (nextPass.loss <= pass.loss)
+                    break;
+                for (int feature = 0; feature < FEATURES; feature++)
+                    step[feature] /= 2;
+            }
+            if (nextPass.loss > pass.loss)
+                break;
+
+            boolean converged = pass.loss - nextPass.loss < CONVERGED * pass.loss;
+            weights = next;
+            pass = nextPass;
+            System.out.printf(Locale.ROOT, "iteration %d: loss %.6f%n", iteration, pass.loss / this.samples);
+            if (converged)
+                break;
+        }
+        return weights;
+    }
+
+    /**
+     * Pass
+     * The loss over the samples with its first and second derivatives, by the weights and by the scale.
+     **/
+    private static final class Pass {
+        double loss;
+        final double[] gradient = new double[FEATURES];
+        final double[] hessian = new double[FEATURES * FEATURES];
+        double scaleGradient;
+        double scaleHessian;
+
+        void add(Pass other) {
+            this.loss += other.loss;
+            for (int i = 0; i < FEATURES; i++)
+                this.gradient[i] += other.gradient[i];
+            for (int i = 0; i < FEATURES * FEATURES; i++)
+                this.hessian[i] += other.hessian[i];
+            this.scaleGradient += other.scaleGradient;
+            this.scaleHessian += other.scaleHessian;
+        }
+    }
+
+    // Every thread adds up its share of the samples in its own Pass, merged at the end
+    private Pass pass(double[] weights, double scale) throws InterruptedException {
+        List<Future<Pass>> parts = new ArrayList<>();
+        for (int thread = 0; thread < this.threads; thread++) {
+            int start = (int) ((long) this.samples * thread / this.threads);
+            int end = (int) ((long) this.samples * (thread + 1) / this.threads);
+            parts.add(this.pool.submit(() -> pass(weights, scale, start, end)));
+        }
+
+        Pass total = new Pass();
+        try {
+            for (Future<Pass> part : parts)
+                total.add(part.get());
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Tuning pass failed", e.getCause());
+        }
+        for (int i = 0; i < FEATURES; i++)
+            for (int j = 0; j < i; j++)
+                total.hessian[i * FEATURES + j] = total.hessian[j * FEATURES + i];
+        return total;
+    }
+
+    /**
+     * pass
+     * For a sample with features f, the prediction is z = scale * (weights . f).
+     * RESULT: p = 1 / (1 + e^-z) against y = result, cross-entropy loss, residual p - y, curvature p(1 - p).
+     * DISCS: z against y = disc difference, squared loss / 2, residual z - y, curvature 1.
+     * The gradient is scale * residual * f and the Hessian scale^2 * curvature * f f^T (upper half only).
+     **/
+    private Pass pass(double[] weights, double scale, int start, int end) {
+        Pass pass = new Pass();
+        byte[] features = this.features;
+        double[] f = new double[FEATURES];
+
+        for (int sample = start; sample < end; sample++) {
+            int offset = sample * FEATURES;
+            double score = 0;
+            for (int i = 0; i < FEATURES; i++) {
+                f[i] = features[offset + i];
+                score += weights[i] * f[i];
+            }
+
+            double z = scale * score;
+            int discs = this.labels[sample];
+            double residual, curvature;
+            if (this.target == RESULT) {
+                double y = discs > 0 ? 1 : discs == 0 ? 0.5 : 0;
+                double p = 1 / (1 + Math.exp(-z));
+                // -y log p - (1 - y) log(1 - p), written to stay finite for large |z|
+                pass.loss += Math.max(z, 0) - y * z + Math.log1p(Math.exp(-Math.abs(z)));
+                residual = p - y;
+                curvature = p * (1 - p);
+            } else {
+                residual = z - discs;
+                curvature = 1;
+                pass.loss += residual * residual / 2;
+            }
+
+            pass.scaleGradient += residual * score;
+            pass.scaleHessian += curvature * score * score;
+            double g = scale * residual, h = scale * scale * curvature;
+            for (int i = 0; i < FEATURES; i++) {
+                pass.gradient[i] += g * f[i];
+                double hf = h * f[i];
+                for (int j = i; j < FEATURES; j++)
+                    pass.hessian[i * FEATURES + j] += hf * f[j];
+            }
+        }
+        return pass;
+    }
+
+    // Solves a x = b by Gaussian elimination with partial pivoting, a is n x n row-major
+    private static double[] solve(double[] a, double[] b) {
+        int n = b.length;
+        for (int col = 0; col < n; col++) {
+            int pivot = col;
+            for (int row = col + 1; row < n; row++)
+                if (Math.abs(a[row * n + col]) > Math.abs(a[pivot * n + col]))
+                    pivot = row;
+            if (a[pivot * n + col] == 0)
+                throw new IllegalStateException("Singular system, feature " + LinearEvaluator.FEATURE_NAMES[col]
+                        + " never changes");
+            if (pivot != col) {
+                for (int k = 0; k < n; k++) {
+                    double swap = a[col * n + k];
+                    a[col * n + k] = a[pivot * n + k];
+                    a[pivot * n + k] = swap;
+                }
+                double swap = b[col];
+                b[col] = b[pivot];
+                b[pivot] = swap;
+            }
+            for (int row = col + 1; row < n; row++) {
+                double factor = a[row * n + col] / a[col * n + col];
+                for (int k = col; k < n; k++)
+                    a[row * n + k] -= factor * a[col * n + k];
+                b[row] -= factor * b[col];
+            }
+        }
+
+        double[] x = new double[n];
+        for (int row = n - 1; row >= 0; row--) {
+            double sum = b[row];
+            for (int k = row + 1; k < n; k++)
+                sum -= a[row * n + k] * x[k];
+            x[row] = sum / a[row * n + row];
+        }
+        return x;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int target = RESULT;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int iterations = DEFAULT_ITERATIONS;
+        int minDiscs = DEFAULT_MIN_DISCS;
+        Path start = null;
+        Path out = Paths.get(LinearEvaluator.DEFAULT_FILE);
+        List<Path> games = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-target" -> target = switch (args[++i]) {
+                    case "result" -> RESULT;
+                    case "discs" -> DISCS;
+                    default -> throw new IllegalArgumentException("Unknown target " + args[i]);
+                };
+                case "-threads" -> threads = Integer.parseInt(args[++i]);
+                case "-iterations" -> iterations = Integer.parseInt(args[++i]);
+                case "-min-discs" -> minDiscs = Integer.parseInt(args[++i]);
+                case "-start" -> start = Paths.get(args[++i]);
+                case "-out" -> out = Paths.get(args[++i]);
+                default -> games.add(Paths.get(args[i]));
+            }
+        }
+        if (games.isEmpty()) {
+            System.err.println("Usage: java othello.Tuner [-target result|discs] [-threads n] [-iterations n]"
+                    + " [-min-discs n] [-start file] [-out file] games...");
+            System.exit(1);
+        }
+
+        int[] startWeights = start != null ? LinearEvaluator.load(start).getWeights() : LinearEvaluator.DEFAULT_WEIGHTS;
+        double[] weights = Arrays.stream(startWeights).asDoubleStream().toArray();
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            Tuner tuner = new Tuner(target, pool, Math.max(1, threads));
+            long time = System.nanoTime();
+            for (Path path : games)
+                tuner.load(path, minDiscs);
+            System.out.printf(Locale.ROOT, "%d positions read in %.1f s%n", tuner.getSamples(),
+                    (System.nanoTime() - time) / 1e9);
+            if (tuner.getSamples() == 0)
+                throw new IllegalArgumentException("No positions to tune on");
+
+            time = System.nanoTime();
+            // A corner is worth about a tenth of a won game, or a few discs
+            double scale = tuner.fitScale(weights, target == RESULT ? 0.01 : 0.1);
+            System.out.printf(Locale.ROOT, "scale %.6g%n", scale);
+            weights = tuner.fit(weights, scale, iterations);
+            System.out.printf(Locale.ROOT, "fitted in %.1f s%n", (System.nanoTime() - time) / 1e9);
+
+            int[] fitted = Arrays.stream(weights).mapToInt(weight -> (int) Math.round(weight)).toArray();
+            LinearEvaluator evaluator = new LinearEvaluator(fitted);
+            evaluator.write(out, String.format("Fitted by java othello.Tuner to the %s of %d positions",
+                    target == RESULT ? "results" : "disc differences", tuner.getSamples()));
+            for (int feature = 0; feature < FEATURES; feature++)
+                System.out.printf("%-10s %6d -> %6d%n", LinearEvaluator.FEATURE_NAMES[feature], startWeights[feature],
+                        fitted[feature]);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
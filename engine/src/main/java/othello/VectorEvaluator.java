@@ -0,0 +1,155 @@
+package othello;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * VectorEvaluator
+ *
+ * The Vector API part of BatchEvaluator: the features and the score of LinearEvaluator, stability left out,
+ * on a vector of positions, one per long lane, in the widest vectors of the CPU. With the default weights
+ * the score is BitBoard.evaluate. Only loaded when the jdk.incubator.vector module is in the JVM.
+ * Bits are counted with the SWAR method, the Vector API of Java 17 has no lanewise bit count.
+ **/
+final class VectorEvaluator {
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS =
+            VectorSpecies.of(int.class, VectorShape.forBitSize(LONGS.vectorBitSize() / 2));
+
+    private VectorEvaluator() {
+    }
+
+    /**
+     * evaluate
+     * Scores the positions of the full vectors at the start of the arrays.
+     * @param weights of the LinearEvaluator features, stability left out, black, white, count, scores
+     *        see BatchEvaluator.evaluate
+     * @return the number of positions scored, a multiple of the vector length
+     **/
+    static int evaluate(int[] weights, long[] black, long[] white, int count, int[] scores) {
+        int end = LONGS.loopBound(count);
+        for (int i = 0; i < end; i += LONGS.length()) {
+            LongVector b = LongVector.fromArray(LONGS, black, i);
+            LongVector w = LongVector.fromArray(LONGS, white, i);
+            store(evaluate(weights, b, w), scores, i);
+        }
+        return end;
+    }
+
+    /**
+     * features
+     * The features of the positions of the full vectors at the start of the arrays, stability left out.
+     * @param black, white, count, features, over see BatchEvaluator.features
+     * @return the number of positions done, a multiple of the vector length
+     **/
+    static int features(long[] black, long[] white, int count, int[][] features, boolean[] over) {
+        int end = LONGS.loopBound(count);
+        for (int i = 0; i < end; i += LONGS.length()) {
+            LongVector b = LongVector.fromArray(LONGS, black, i);
+            LongVector w = LongVector.fromArray(LONGS, white, i);
+            LongVector blackMoves = moves(b, w);
+            LongVector whiteMoves = moves(w, b);
+            VectorMask<Long> blackStuck = blackMoves.eq(0);
+            VectorMask<Long> whiteStuck = whiteMoves.eq(0);
+
+            store(difference(b, w, BitBoard.CORNERS), features[LinearEvaluator.CORNER], i);
+            store(difference(b, w, BitBoard.X_SQUARES), features[LinearEvaluator.X_SQUARE], i);
+            store(difference(b, w, BitBoard.C_SQUARES), features[LinearEvaluator.C_SQUARE], i);
+            store(difference(b, w, BitBoard.EDGES), features[LinearEvaluator.EDGE], i);
+            store(bitCount(blackMoves).sub(bitCount(whiteMoves)), features[LinearEvaluator.MOBILITY], i);
+            store(noMoves(blackStuck, whiteStuck), features[LinearEvaluator.NO_MOVES], i);
+            store(majority(bitCount(b), bitCount(w)), features[LinearEvaluator.MAJORITY], i);
+            blackStuck.and(whiteStuck).intoArray(over, i);
+        }
+        return end;
+    }
+
+    // The same terms as LinearEvaluator.evaluate, every lane its own position
+    private static LongVector evaluate(int[] weights, LongVector black, LongVector white) {
+        LongVector blackDiscs = bitCount(black);
+        LongVector whiteDiscs = bitCount(white);
+        LongVector blackMoves = moves(black, white);
+        LongVector whiteMoves = moves(white, black);
+        VectorMask<Long> blackStuck = blackMoves.eq(0);
+        VectorMask<Long> whiteStuck = whiteMoves.eq(0);
+
+        LongVector score = difference(black, white, BitBoard.CORNERS).mul(weights[LinearEvaluator.CORNER])
+                .add(difference(black, white, BitBoard.X_SQUARES).mul(weights[LinearEvaluator.X_SQUARE]))
+                .add(difference(black, white, BitBoard.C_SQUARES).mul(weights[LinearEvaluator.C_SQUARE]))
+                .add(difference(black, white, BitBoard.EDGES).mul(weights[LinearEvaluator.EDGE]))
+                .add(bitCount(blackMoves).sub(bitCount(whiteMoves)).mul(weights[LinearEvaluator.MOBILITY]))
+                .add(noMoves(blackStuck, whiteStuck).mul(weights[LinearEvaluator.NO_MOVES]))
+                .add(majority(blackDiscs, whiteDiscs).mul(weights[LinearEvaluator.MAJORITY]));
+
+        // Finished games score the winner
+        LongVector result = LongVector.zero(LONGS)
+                .blend(BitBoard.WIN_SCORE, blackDiscs.compare(VectorOperators.GT, whiteDiscs))
+                .blend(-BitBoard.WIN_SCORE, whiteDiscs.compare(VectorOperators.GT, blackDiscs));
+        return score.blend(result, blackStuck.and(whiteStuck));
+    }
+
+    private static LongVector difference(LongVector black, LongVector white, long squares) {
+        return bitCount(black.and(squares)).sub(bitCount(white.and(squares)));
+    }
+
+    // 1 if white has no moves, -1 if black has none
+    private static LongVector noMoves(VectorMask<Long> blackStuck, VectorMask<Long> whiteStuck) {
+        return LongVector.zero(LONGS).add(1, whiteStuck).sub(1, blackStuck);
+    }
+
+    // 1 if black holds a 3:2 majority, -1 if white does
+    private static LongVector majority(LongVector blackDiscs, LongVector whiteDiscs) {
+        return LongVector.zero(LONGS)
+                .add(1, blackDiscs.mul(2).compare(VectorOperators.GT, whiteDiscs.mul(3)))
+                .sub(1, whiteDiscs.mul(2).compare(VectorOperators.GT, blackDiscs.mul(3)));
+    }
+
+    // The lanes narrowed to ints, into the array from the offset
+    private static void store(LongVector values, int[] array, int offset) {
+        values.convertShape(VectorOperators.L2I, INTS, 0).reinterpretAsInts().intoArray(array, offset);
+    }
+
+    // BitBoard.moves, lanewise. The directions are spelled out so that every shift is a constant,
+    // C2 only turns shifts by a constant into vector instructions.
+    private static LongVector moves(LongVector player, LongVector opponent) {
+        return direction(player, opponent, 1, BitBoard.NOT_A, BitBoard.NOT_H)
+                .or(direction(player, opponent, 7, BitBoard.NOT_H, BitBoard.NOT_A))
+                .or(direction(player, opponent, 8, -1L, -1L))
+                .or(direction(player, opponent, 9, BitBoard.NOT_A, BitBoard.NOT_H))
+                .and(player.or(opponent).not());
+    }
+
+    private static LongVector direction(LongVector player, LongVector opponent, int shift, long leftMask, long rightMask) {
+        LongVector left = fillLeft(player, opponent.and(leftMask), shift).and(opponent);
+        LongVector right = fillRight(player, opponent.and(rightMask), shift).and(opponent);
+        return left.lanewise(VectorOperators.LSHL, shift).and(leftMask)
+                .or(right.lanewise(VectorOperators.LSHR, shift).and(rightMask));
+    }
+
+    // Kogge-Stone occluded fills, like BitBoard.fillLeft and fillRight
+    private static LongVector fillLeft(LongVector gen, LongVector pro, int shift) {
+        gen = gen.or(pro.and(gen.lanewise(VectorOperators.LSHL, shift)));
+        pro = pro.and(pro.lanewise(VectorOperators.LSHL, shift));
+        gen = gen.or(pro.and(gen.lanewise(VectorOperators.LSHL, shift << 1)));
+        pro = pro.and(pro.lanewise(VectorOperators.LSHL, shift << 1));
+        return gen.or(pro.and(gen.lanewise(VectorOperators.LSHL, shift << 2)));
+    }
+
+    private static LongVector fillRight(LongVector gen, LongVector pro, int shift) {
+        gen = gen.or(pro.and(gen.lanewise(VectorOperators.LSHR, shift)));
+        pro = pro.and(pro.lanewise(VectorOperators.LSHR, shift));
+        gen = gen.or(pro.and(gen.lanewise(VectorOperators.LSHR, shift << 1)));
+        pro = pro.and(pro.lanewise(VectorOperators.LSHR, shift << 1));
+        return gen.or(pro.and(gen.lanewise(VectorOperators.LSHR, shift << 2)));
+    }
+
+    private static LongVector bitCount(LongVector x) {
+        x = x.sub(x.lanewise(VectorOperators.LSHR, 1).and(0x5555555555555555L));
+        x = x.and(0x3333333333333333L).add(x.lanewise(VectorOperators.LSHR, 2).and(0x3333333333333333L));
+        x = x.add(x.lanewise(VectorOperators.LSHR, 4)).and(0x0F0F0F0F0F0F0F0FL);
+        return x.mul(0x0101010101010101L).lanewise(VectorOperators.LSHR, 56);
+    }
+}
@@ -0,0 +1,57 @@
+package othello;
+
+import java.util.Random;
+
+/**
+ * Zobrist
+ *
+ * Random keys used to hash board positions.
+ * A position's hash is the XOR of the key of every disc on the board, so placing or flipping
+ * a disc updates it with a single XOR. The side to move is mixed in with its own key.
+ **/
+public final class Zobrist {
+    static final long[] BLACK = new long[64];
+    static final long[] WHITE = new long[64];
+    static final long[] FLIP = new long[64];   // XOR of both colors, turns a black disc into a white one and back
+    static final long BLACK_TO_MOVE;
+
+    static {
+        // Fixed seed so that hashes are the same in every run
+        Random random = new Random(0x0DE110L);
+        for (int i = 0; i < 64; i++) {
+            BLACK[i] = random.nextLong();
+            WHITE[i] = random.nextLong();
+            FLIP[i] = BLACK[i] ^ WHITE[i];
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * hash
+     * Calculates the hash of the given discs from scratch.
+     * @param black, white
+     * @return long hash of the discs
+     **/
+    static long hash(long black, long white) {
+        long hash = 0;
+        for (; black != 0; black &= black - 1)
+            hash ^= BLACK[Long.numberOfTrailingZeros(black)];
+        for (; white != 0; white &= white - 1)
+            hash ^= WHITE[Long.numberOfTrailingZeros(white)];
+        return hash;
+    }
+
+    /**
+     * flip
+     * @param hash, flipped
+     * @return the hash with the color of every flipped disc swapped
+     **/
+    static long flip(long hash, long flipped) {
+        for (; flipped != 0; flipped &= flipped - 1)
+            hash ^= FLIP[Long.numberOfTrailingZeros(flipped)];
+        return hash;
+    }
+}
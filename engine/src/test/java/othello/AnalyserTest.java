@@ -0,0 +1,49 @@
+package othello;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class AnalyserTest {
+    // Ends 58 to 5 with an empty square, the last move is not the best one. A depth 6 engine solves the last plies.
+    private static final String GAME = "d3e3f3c5d6f2f1e7d7f4f7d2b6g3h2c6c1e2e1d8c7b7b5f5g5g7a8g4e8e6h7d1c4c2b8g1h5a6"
+            + "b3b4h1h4a3a2a1f8a7a4c3g2a5g8g6h6h3c8f6b2h8";
+
+    // The score before the last move less its error is the score of the finished game, the empties to the winner
+    @Test
+    void lastMoveOfAFinishedGame() {
+        Analyser analyser = new Analyser(new Tournament.Engine("depth=6"), new TranspositionTable(1));
+        List<Analyser.MoveAnalysis> moves = analyser.analyse(GAME);
+        assertEquals(GAME.length() / 2, moves.size());
+
+        Analyser.MoveAnalysis last = moves.get(moves.size() - 1);
+        BitBoard end = play(GAME);
+        int finalScore = EndgameSolver.finalScore(end.getBlack(), end.getWhite()) * last.color;
+        assertEquals(finalScore, last.getScore() - last.getError());
+    }
+
+    // Only the move between the last evaluated and the first solved position goes without an error
+    @Test
+    void noErrorWhereTheSolverTakesOver() {
+        Analyser analyser = new Analyser(new Tournament.Engine("depth=6"), new TranspositionTable(1));
+        List<Analyser.MoveAnalysis> moves = analyser.analyse(GAME);
+        long unscored = moves.stream().filter(move -> move.getError() == Analyser.MoveAnalysis.NO_ERROR).count();
+        assertEquals(1, unscored);
+
+        // Searched a second time, from the cache
+        assertEquals(moves.stream().map(Analyser.MoveAnalysis::getError).toList(),
+                analyser.analyse(GAME).stream().map(Analyser.MoveAnalysis::getError).toList());
+        assertEquals(moves.size(), analyser.getCacheHits());
+    }
+
+    private static BitBoard play(String game) {
+        BitBoard board = new BitBoard();
+        int[] moves = new int[RecordFile.MAX_MOVES];
+        int color = Board.B;
+        for (int i = 0, count = RecordFile.parseGame(game, moves); i < count; i++, color = -color)
+            if (moves[i] != BitBoard.PASS)
+                board.placeDisk(moves[i], color);
+        return board;
+    }
+}
@@ -0,0 +1,66 @@
+package othello;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class BatchEvaluatorTest {
+    // Not a multiple of any vector length, so the scalar tail is covered too
+    private static final int COUNT = 1001;
+
+    private final long[] black = new long[COUNT], white = new long[COUNT];
+
+    BatchEvaluatorTest() {
+        Random random = new Random(31);
+        for (int i = 0; i < COUNT; i++) {
+            long[] position = RandomPositions.play(random, 4 + random.nextInt(61));
+            this.black[i] = position[0];
+            this.white[i] = position[1];
+        }
+        // Finished games, in the vectors and in the tail
+        for (int i : new int[] {3, COUNT - 1}) {
+            this.black[i] = 0x00FF00FF00FF00FFL;
+            this.white[i] = ~this.black[i] & ~1L;
+        }
+    }
+
+    @Test
+    void batchMatchesBitBoard() {
+        int[] scores = new int[COUNT];
+        BatchEvaluator.evaluate(this.black, this.white, COUNT, scores);
+        for (int i = 0; i < COUNT; i++)
+            assertEquals(BitBoard.evaluate(this.black[i], this.white[i]), scores[i], "position " + i);
+    }
+
+    @Test
+    void batchMatchesLinearEvaluator() {
+        Random random = new Random(37);
+        int[] weights = new int[LinearEvaluator.FEATURES];
+        for (int feature = 0; feature < weights.length; feature++)
+            weights[feature] = random.nextInt(201) - 100;
+        LinearEvaluator evaluator = new LinearEvaluator(weights);
+
+        int[] scores = new int[COUNT];
+        BatchEvaluator.evaluate(evaluator, this.black, this.white, COUNT, scores);
+        for (int i = 0; i < COUNT; i++)
+            assertEquals(evaluator.evaluate(new BitBoard(this.black[i], this.white[i], Board.W)), scores[i],
+                    "position " + i);
+    }
+
+    @Test
+    void featuresMatchLinearEvaluator() {
+        int[][] features = new int[LinearEvaluator.FEATURES][COUNT];
+        boolean[] over = new boolean[COUNT];
+        BatchEvaluator.features(this.black, this.white, COUNT, features, over);
+
+        int[] expected = new int[LinearEvaluator.FEATURES];
+        for (int i = 0; i < COUNT; i++) {
+            assertEquals(!LinearEvaluator.features(this.black[i], this.white[i], expected), over[i], "position " + i);
+            if (!over[i])
+                for (int feature = 0; feature < LinearEvaluator.FEATURES; feature++)
+                    assertEquals(expected[feature], features[feature][i],
+                            LinearEvaluator.FEATURE_NAMES[feature] + " " + i);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package othello;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class BitBoardTest {
+
+    // Random lines of moves and passes from random positions, taken back one by one
+    @Test
+    void undoRestoresEveryMove() {
+        Random random = new Random(43);
+        for (int i = 0; i < 200; i++) {
+            long[] discs = RandomPositions.play(random, 4 + random.nextInt(50));
+            BitBoard board = new BitBoard(discs[0], discs[1], Board.W);
+            int color = Board.B;
+
+            BitBoard[] line = new BitBoard[20];
+            int length = 0;
+            while (length < line.length && (board.canPlay(Board.B) || board.canPlay(Board.W))) {
+                line[length++] = new BitBoard(board);
+                long moves = board.legalMoves(color);
+                if (moves == 0) {
+                    board.makePass(color);
+                } else {
+                    int square = RandomPositions.randomMove(random, moves);
+                    long player = color == Board.B ? board.getBlack() : board.getWhite();
+                    long opponent = color == Board.B ? board.getWhite() : board.getBlack();
+                    assertEquals(BitBoard.flips(square, player, opponent), board.makeMove(square, color));
+                }
+                color = -color;
+            }
+
+            while (length > 0) {
+                board.undoMove();
+                assertSame(line[--length], board);
+            }
+        }
+    }
+
+    // makeMove plays the same move as placeDisk
+    @Test
+    void makeMoveMatchesPlaceDisk() {
+        Random random = new Random(47);
+        for (int i = 0; i < 500; i++) {
+            long[] discs = RandomPositions.play(random, 4 + random.nextInt(56));
+            BitBoard board = new BitBoard(discs[0], discs[1], Board.W);
+            long moves = board.legalMoves(Board.B);
+            if (moves == 0)
+                continue;
+
+            int square = RandomPositions.randomMove(random, moves);
+            BitBoard placed = new BitBoard(board);
+            placed.placeDisk(square, Board.B);
+            board.makeMove(square, Board.B);
+            assertSame(placed, board);
+        }
+    }
+
+    // The hash kept up by makeMove is the hash of the position made from scratch
+    @Test
+    void incrementalHashMatchesNewBoard() {
+        Random random = new Random(59);
+        for (int i = 0; i < 100; i++) {
+            BitBoard board = new BitBoard();
+            int color = Board.B;
+            while (board.canPlay(Board.B) || board.canPlay(Board.W)) {
+                long moves = board.legalMoves(color);
+                if (moves == 0)
+                    board.makePass(color);
+                else
+                    board.makeMove(RandomPositions.randomMove(random, moves), color);
+                color = -color;
+                BitBoard fresh = new BitBoard(board.getBlack(), board.getWhite(), board.getLastPlayer());
+                assertEquals(fresh.getHash(), board.getHash(), board.toString());
+            }
+        }
+    }
+
+    private static void assertSame(BitBoard expected, BitBoard actual) {
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals(expected.getHash(), actual.getHash());
+        assertEquals(expected.getLastMove(), actual.getLastMove());
+        assertEquals(expected.getBlackDiscs(), actual.getBlackDiscs());
+        assertEquals(expected.getWhiteDiscs(), actual.getWhiteDiscs());
+        assertEquals(expected.legalMoves(Board.B), actual.legalMoves(Board.B));
+        assertEquals(expected.legalMoves(Board.W), actual.legalMoves(Board.W));
+        assertEquals(expected.evaluate(), actual.evaluate());
+    }
+}
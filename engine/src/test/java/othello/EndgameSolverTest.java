@@ -0,0 +1,51 @@
+package othello;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class EndgameSolverTest {
+
+    @Test
+    void matchesBruteForce() {
+        Random random = new Random(8);
+        EndgameSolver solver = new EndgameSolver(1);
+        for (int i = 0; i < 40; i++) {
+            long[] position = RandomPositions.play(random, 54 + random.nextInt(3));
+            long player = position[0], opponent = position[1];
+            int expected = bruteForce(player, opponent);
+
+            assertEquals(expected, solver.solve(player, opponent, EndgameSolver.EXACT));
+            assertEquals(Integer.signum(expected), solver.solve(player, opponent, EndgameSolver.WIN_LOSS_DRAW));
+
+            // The best move of an exact solve keeps the score
+            solver.solve(player, opponent, EndgameSolver.EXACT);
+            int square = solver.getBestMove();
+            if (BitBoard.moves(player, opponent) != 0) {
+                assertTrue((BitBoard.moves(player, opponent) & 1L << square) != 0, "legal best move");
+                long flipped = BitBoard.flips(square, player, opponent);
+                assertEquals(expected, -bruteForce(opponent & ~flipped, player | flipped | (1L << square)));
+            }
+        }
+    }
+
+    // Plain negamax over every line to the end of the game
+    private static int bruteForce(long player, long opponent) {
+        long moves = BitBoard.moves(player, opponent);
+        if (moves == 0) {
+            if (BitBoard.moves(opponent, player) == 0)
+                return EndgameSolver.finalScore(player, opponent);
+            return -bruteForce(opponent, player);
+        }
+
+        int best = -65;
+        for (; moves != 0; moves &= moves - 1) {
+            int square = Long.numberOfTrailingZeros(moves);
+            long flipped = BitBoard.flips(square, player, opponent);
+            best = Math.max(best, -bruteForce(opponent & ~flipped, player | flipped | (1L << square)));
+        }
+        return best;
+    }
+}
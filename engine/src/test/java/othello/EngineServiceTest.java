@@ -0,0 +1,69 @@
+package othello;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class EngineServiceTest {
+    private EngineService service;
+
+    @BeforeEach
+    void start() {
+        this.service = new EngineService(new TranspositionTable(4), 1, Evaluator.DEFAULT, null, null);
+    }
+
+    @AfterEach
+    void close() throws IOException {
+        this.service.close();
+    }
+
+    // Runs a session on the commands, stop waits for the answer of the search
+    private List<String> session(String... commands) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        String in = String.join("\n", commands) + "\n";
+        this.service.serve(new ByteArrayInputStream(in.getBytes(StandardCharsets.UTF_8)), out);
+        return out.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+
+    @Test
+    void positionInTheFormatOfToString() throws IOException {
+        long[] discs = RandomPositions.play(new Random(41), 30);
+        BitBoard position = new BitBoard(discs[0], discs[1], Board.W);   // Black to move
+
+        List<String> answers = session("set position " + position, "set depth 4", "set time 0", "go", "stop",
+                "stats", "quit");
+        assertEquals(3, answers.size(), answers.toString());
+        assertTrue(answers.get(0).startsWith("bestmove "), answers.get(0));
+        assertTrue(answers.get(1).startsWith("stats move "), answers.get(1));
+        assertTrue(answers.get(2).startsWith("service sessions "), answers.get(2));
+
+        String[] rowCol = answers.get(0).split(" ")[1].split(",");
+        int square = (Integer.parseInt(rowCol[0]) - 1) * 8 + Integer.parseInt(rowCol[1]) - 1;
+        assertTrue(position.isValidMove(square, Board.B), "legal move " + answers.get(0));
+    }
+
+    @Test
+    void positionWithSpacedRows() throws IOException {
+        String rows = "-------- -------- -------- ---OX--- ---XO--- -------- -------- -------- O";
+        // White to move: 3,4 is only a move for black
+        List<String> answers = session("set position " + rows, "move 3,4", "move 3,5", "ping 1", "quit");
+        assertEquals(List.of("error illegal move 3,4", "pong 1"), answers);
+    }
+
+    @Test
+    void errors() throws IOException {
+        List<String> answers = session("set position XO", "set depth x", "move 1,1", "jump", "quit");
+        assertEquals(4, answers.size(), answers.toString());
+        for (String answer : answers)
+            assertTrue(answer.startsWith("error "), answer);
+    }
+}
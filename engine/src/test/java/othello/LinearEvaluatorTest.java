@@ -0,0 +1,32 @@
+package othello;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LinearEvaluatorTest {
+
+    @Test
+    void linearDefaultWeightsMatchBitBoard() {
+        LinearEvaluator evaluator = new LinearEvaluator(LinearEvaluator.DEFAULT_WEIGHTS);
+        Random random = new Random(37);
+        for (int i = 0; i < 2000; i++) {
+            long[] position = RandomPositions.play(random, 4 + random.nextInt(61));
+            BitBoard board = new BitBoard(position[0], position[1], Board.W);
+            assertEquals(board.evaluate(), evaluator.evaluate(board), "position " + i);
+        }
+    }
+
+    @Test
+    void linearWeightsRoundTrip(@TempDir Path directory) throws IOException {
+        int[] weights = {1, -2, 3, -4, 5, -6, 7, -8};
+        Path path = directory.resolve("evaluation.txt");
+        new LinearEvaluator(weights).write(path, "test");
+        assertArrayEquals(weights, LinearEvaluator.load(path).getWeights());
+    }
+}
@@ -0,0 +1,58 @@
+package othello;
+
+import java.util.Random;
+
+/**
+ * Minimax
+ *
+ * Plain negamax without pruning, table or ordering: the score a fixed-depth search has to find, for the tests.
+ * Leaves and finished games are scored like Searcher, with the built-in evaluation.
+ **/
+final class Minimax {
+    private Minimax() {
+    }
+
+    /**
+     * search
+     * @param board, depth, color side to move
+     * @return the score for the side to move
+     **/
+    static int search(BitBoard board, int depth, int color) {
+        if (board.isFull() || depth == 0)
+            return color * board.evaluate();
+
+        long moves = board.legalMoves(color);
+        if (moves == 0) {
+            if (board.legalMoves(-color) == 0)
+                return color * board.evaluate();
+            board.makePass(color);
+            int score = -search(board, depth - 1, -color);
+            board.undoMove();
+            return score;
+        }
+
+        int best = -Searcher.INFINITY;
+        for (; moves != 0; moves &= moves - 1) {
+            board.makeMove(Long.numberOfTrailingZeros(moves), color);
+            best = Math.max(best, -search(board, depth - 1, -color));
+            board.undoMove();
+        }
+        return best;
+    }
+
+    /**
+     * positions
+     * @param random, count, minDiscs, maxDiscs
+     * @return random positions with black to move, black having a move. Up to 32 discs no side can win
+     *         on stable discs before the leaves of a shallow search, so Searcher's stability cutoffs stay out.
+     **/
+    static BitBoard[] positions(Random random, int count, int minDiscs, int maxDiscs) {
+        BitBoard[] positions = new BitBoard[count];
+        for (int i = 0; i < count; ) {
+            long[] discs = RandomPositions.play(random, minDiscs + random.nextInt(maxDiscs - minDiscs + 1));
+            if (BitBoard.moves(discs[0], discs[1]) != 0)
+                positions[i++] = new BitBoard(discs[0], discs[1], Board.W);
+        }
+        return positions;
+    }
+}
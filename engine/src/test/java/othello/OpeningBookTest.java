@@ -0,0 +1,75 @@
+package othello;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class OpeningBookTest {
+
+    @Test
+    void symmetriesRoundTrip() {
+        for (int symmetry = 0; symmetry < BitBoard.SYMMETRIES; symmetry++) {
+            for (int square = 0; square < 64; square++) {
+                int transformed = BitBoard.transformSquare(square, symmetry);
+                assertEquals(1L << transformed, BitBoard.transform(1L << square, symmetry));
+                assertEquals(square, BitBoard.inverseSquare(transformed, symmetry));
+            }
+        }
+    }
+
+    @Test
+    void symmetricPositionsShareTheirOrientation() {
+        Random random = new Random(11);
+        for (int i = 0; i < 200; i++) {
+            long[] position = RandomPositions.play(random, 5 + random.nextInt(50));
+            long[] canonical = canonical(position[0], position[1]);
+            for (int symmetry = 0; symmetry < BitBoard.SYMMETRIES; symmetry++) {
+                long player = BitBoard.transform(position[0], symmetry);
+                long opponent = BitBoard.transform(position[1], symmetry);
+                long[] other = canonical(player, opponent);
+                assertEquals(canonical[0], other[0]);
+                assertEquals(canonical[1], other[1]);
+            }
+        }
+    }
+
+    // A book move looked up in any orientation of a position is the same move, turned with the board
+    @Test
+    void lookupInEveryOrientation(@TempDir Path directory) throws IOException {
+        Path path = directory.resolve("book.bin");
+        assertNotEquals(0, OpeningBook.build(path, 3, 2, 1));
+        OpeningBook book = OpeningBook.load(path);
+
+        Random random = new Random(3);
+        for (int i = 0; i < 50; i++) {
+            long[] position = RandomPositions.play(random, 4 + random.nextInt(3));
+            for (int symmetry = 0; symmetry < BitBoard.SYMMETRIES; symmetry++) {
+                long player = BitBoard.transform(position[0], symmetry);
+                long opponent = BitBoard.transform(position[1], symmetry);
+                int square = book.lookup(new BitBoard(player, opponent, Board.W), Board.B);
+                assertTrue(square != BitBoard.NO_MOVE, "position in the book");
+                assertTrue((BitBoard.moves(player, opponent) & 1L << square) != 0, "legal book move");
+
+                // The position after the move is the one after the move of the first orientation, up to symmetry
+                long flipped = BitBoard.flips(square, player, opponent);
+                long[] after = canonical(opponent & ~flipped, player | flipped | (1L << square));
+                int first = book.lookup(new BitBoard(position[0], position[1], Board.W), Board.B);
+                long firstFlipped = BitBoard.flips(first, position[0], position[1]);
+                long[] expected = canonical(position[1] & ~firstFlipped, position[0] | firstFlipped | (1L << first));
+                assertEquals(expected[0], after[0]);
+                assertEquals(expected[1], after[1]);
+            }
+        }
+    }
+
+    private static long[] canonical(long player, long opponent) {
+        int symmetry = OpeningBook.canonicalSymmetry(player, opponent);
+        return new long[] {BitBoard.transform(player, symmetry), BitBoard.transform(opponent, symmetry)};
+    }
+}
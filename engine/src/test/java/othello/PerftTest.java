@@ -0,0 +1,38 @@
+package othello;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class PerftTest {
+    private static final BitBoard START = new BitBoard();
+
+    @Test
+    void countsFromTheStart() {
+        for (int depth = 0; depth <= 6; depth++)
+            assertEquals(Perft.START_COUNTS[depth], Perft.perft(START.getBlack(), START.getWhite(), depth),
+                    "perft(" + depth + ")");
+    }
+
+    @Test
+    void divideAddsUpToPerft() {
+        Random random = new Random(13);
+        for (int i = 0; i < 20; i++) {
+            long[] position = RandomPositions.play(random, 20 + random.nextInt(40));
+            for (int depth = 1; depth <= 4; depth++) {
+                long total = 0;
+                for (long[] root : Perft.divide(position[0], position[1], depth, 2))
+                    total += root[1];
+                assertEquals(Perft.perft(position[0], position[1], depth), total);
+            }
+        }
+    }
+
+    @Test
+    void finishedGameIsOneLeaf() {
+        long black = -1L >>> 1, white = 1L << 63;
+        assertEquals(1, Perft.perft(black, white, 3));
+        assertEquals(1, Perft.divide(black, white, 3, 1).stream().mapToLong(root -> root[1]).sum());
+    }
+}
@@ -0,0 +1,49 @@
+package othello;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class PlayerABTest {
+
+    // A deterministic search gives the move and score of the single-threaded one, however many threads run it
+    @Test
+    void deterministicThreadsMatchOneThread() {
+        Random random = new Random(61);
+        for (BitBoard position : Minimax.positions(random, 12, 12, 40)) {
+            Move single = move(position, 6, 1, true);
+            for (int threads : new int[] {2, 4}) {
+                Move parallel = move(position, 6, threads, true);
+                assertEquals(single.getRow() * 8 + single.getCol(), parallel.getRow() * 8 + parallel.getCol(),
+                        threads + " threads on " + position);
+                assertEquals(single.getValue(), parallel.getValue(), threads + " threads on " + position);
+            }
+        }
+    }
+
+    // PVS with aspiration windows finds the minimax score, and plays a move that scores it
+    @Test
+    void principalVariationSearchMatchesMinimax() {
+        Random random = new Random(67);
+        int depth = 5;
+        for (BitBoard position : Minimax.positions(random, 12, 12, 32)) {
+            int score = Minimax.search(new BitBoard(position), depth, Board.B);
+            Move move = move(position, depth, 1, true);
+            assertEquals(score, move.getValue(), position.toString());
+
+            BitBoard next = new BitBoard(position);
+            next.makeMove(move.getRow() * 8 + move.getCol(), Board.B);
+            assertEquals(score, -Minimax.search(next, depth - 1, Board.W), position.toString());
+        }
+    }
+
+    private static Move move(BitBoard position, int depth, int threads, boolean deterministic) {
+        try (PlayerAB player = new PlayerAB(depth, -position.getLastPlayer(), true)) {
+            player.setHashSize(1);
+            player.setThreads(threads);
+            player.setDeterministic(deterministic);
+            return player.move(new Board(new BitBoard(position)));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package othello;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ProbCutTest {
+    @TempDir
+    Path directory;
+
+    // One stage, every depth checked by a search two plies shallower
+    private ProbCut load() throws IOException {
+        Path path = this.directory.resolve("probcut.txt");
+        Files.write(path, List.of("stages 1", "threshold 1.5", "0 3 1 1.0 0 40", "0 4 2 1.0 0 40",
+                "0 5 3 1.0 0 40", "0 6 4 1.0 0 40"));
+        return ProbCut.load(path);
+    }
+
+    // An infinite threshold never cuts: the search is the one without ProbCut, node for node
+    @Test
+    void infiniteThresholdSearchesLikeNoProbCut() throws IOException {
+        ProbCut never = load().withThreshold(Double.POSITIVE_INFINITY);
+        Random random = new Random(71);
+        for (BitBoard position : Minimax.positions(random, 10, 12, 40)) {
+            long[] off = search(position, null);
+            long[] on = search(position, never);
+            assertEquals(off[0], on[0], "move on " + position);
+            assertEquals(off[1], on[1], "score on " + position);
+            assertEquals(off[2], on[2], "nodes on " + position);
+        }
+    }
+
+    // The parameters do cut at a finite threshold
+    @Test
+    void finiteThresholdCuts() throws IOException {
+        ProbCut probCut = load().withThreshold(0.5);
+        long off = 0, on = 0;
+        for (BitBoard position : Minimax.positions(new Random(73), 10, 12, 40)) {
+            off += search(position, null)[2];
+            on += search(position, probCut)[2];
+        }
+        assertTrue(on < off, on + " nodes with ProbCut, " + off + " without");
+    }
+
+    // {move, score, nodes} of a depth 6 search
+    private static long[] search(BitBoard position, ProbCut probCut) {
+        try (PlayerAB player = new PlayerAB(6, -position.getLastPlayer(), true)) {
+            player.setHashSize(1);
+            player.setProbCut(probCut);
+            Move move = player.move(new Board(new BitBoard(position)));
+            return new long[] {move.getRow() * 8 + move.getCol(), move.getValue(), player.getNodes()};
+        }
+    }
+}
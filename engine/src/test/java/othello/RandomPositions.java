@@ -0,0 +1,56 @@
+package othello;
+
+import java.util.Random;
+
+/**
+ * RandomPositions
+ *
+ * Positions of random games, the same for the same seed, for the tests.
+ * Positions are the discs of the side to move (player) and of the other side (opponent).
+ **/
+final class RandomPositions {
+    private RandomPositions() {
+    }
+
+    /**
+     * play
+     * Plays random moves from the start until the given number of discs is on the board
+     * or the game is over, passing when the side to move has no move.
+     * @param random, discs
+     * @return {player, opponent}, the side to move has a move unless the game is over
+     **/
+    static long[] play(Random random, int discs) {
+        BitBoard start = new BitBoard();
+        long player = start.getBlack(), opponent = start.getWhite();
+        while (Long.bitCount(player | opponent) < discs) {
+            long moves = BitBoard.moves(player, opponent);
+            if (moves == 0) {
+                if (BitBoard.moves(opponent, player) == 0)
+                    break;
+                long swap = player;
+                player = opponent;
+                opponent = swap;
+                continue;
+            }
+            int square = randomMove(random, moves);
+            long flipped = BitBoard.flips(square, player, opponent);
+            long next = opponent & ~flipped;
+            opponent = player | flipped | (1L << square);
+            player = next;
+        }
+        if (BitBoard.moves(player, opponent) == 0 && BitBoard.moves(opponent, player) != 0)
+            return new long[] {opponent, player};
+        return new long[] {player, opponent};
+    }
+
+    /**
+     * randomMove
+     * @param random, moves at least one
+     * @return one of the moves
+     **/
+    static int randomMove(Random random, long moves) {
+        for (int skip = random.nextInt(Long.bitCount(moves)); skip > 0; skip--)
+            moves &= moves - 1;
+        return Long.numberOfTrailingZeros(moves);
+    }
+}
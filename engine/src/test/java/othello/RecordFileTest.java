@@ -0,0 +1,124 @@
+package othello;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class RecordFileTest {
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void positionsRoundTrip(boolean compressed) throws IOException {
+        Path path = this.directory.resolve("positions.rec");
+        Random random = new Random(17);
+        List<long[]> positions = new ArrayList<>();
+        try (RecordWriter writer = RecordWriter.create(path, RecordFile.POSITIONS, compressed)) {
+            // Several blocks, the last one not full
+            for (int i = 0; i < 10_000; i++) {
+                long[] position = RandomPositions.play(random, 4 + random.nextInt(60));
+                int color = random.nextBoolean() ? Board.B : Board.W;
+                positions.add(new long[] {position[0], position[1], color});
+                writer.writePosition(position[0], position[1], color);
+            }
+        }
+
+        try (RecordReader reader = RecordReader.open(path)) {
+            assertEquals(RecordFile.POSITIONS, reader.getKind());
+            assertEquals(compressed, reader.isCompressed());
+            assertEquals(positions.size(), reader.size());
+            assertTrue(reader.getBlocks() > 1);
+            for (long[] position : positions) {
+                assertTrue(reader.next());
+                assertPosition(position, reader);
+            }
+            assertFalse(reader.next());
+
+            for (int i = 0; i < 200; i++) {
+                int record = random.nextInt(positions.size());
+                reader.seek(record);
+                assertTrue(reader.next());
+                assertPosition(positions.get(record), reader);
+            }
+            reader.seek(positions.size());
+            assertFalse(reader.next());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void gamesRoundTrip(boolean compressed) throws IOException {
+        Path path = this.directory.resolve("games.rec");
+        Random random = new Random(29);
+        List<int[]> games = new ArrayList<>();
+        BitBoard start = new BitBoard();
+        try (RecordWriter writer = RecordWriter.create(path, RecordFile.GAMES, compressed)) {
+            for (int i = 0; i < 3000; i++) {
+                int[] game = randomGame(random);
+                games.add(game);
+                writer.writeGame(start.getBlack(), start.getWhite(), Board.B, game, game.length);
+            }
+        }
+
+        try (RecordReader reader = RecordReader.open(path)) {
+            assertEquals(RecordFile.GAMES, reader.getKind());
+            assertEquals(games.size(), reader.size());
+            for (int[] game : games) {
+                assertTrue(reader.next());
+                assertGame(start, game, reader);
+            }
+            assertFalse(reader.next());
+
+            for (int i = 0; i < 200; i++) {
+                int record = random.nextInt(games.size());
+                reader.seek(record);
+                assertTrue(reader.next());
+                assertGame(start, games.get(record), reader);
+            }
+        }
+    }
+
+    // A random game from the start, passes included
+    private static int[] randomGame(Random random) {
+        BitBoard board = new BitBoard();
+        int color = Board.B;
+        List<Integer> moves = new ArrayList<>();
+        while (board.canPlay(Board.B) || board.canPlay(Board.W)) {
+            long legal = board.legalMoves(color);
+            if (legal == 0) {
+                moves.add(BitBoard.PASS);
+            } else {
+                int square = RandomPositions.randomMove(random, legal);
+                board.placeDisk(square, color);
+                moves.add(square);
+            }
+            color = -color;
+        }
+        return moves.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static void assertPosition(long[] expected, RecordReader reader) {
+        assertEquals(expected[0], reader.getBlack());
+        assertEquals(expected[1], reader.getWhite());
+        assertEquals(expected[2], reader.getColor());
+    }
+
+    private static void assertGame(BitBoard start, int[] expected, RecordReader reader) {
+        assertEquals(start.getBlack(), reader.getBlack());
+        assertEquals(start.getWhite(), reader.getWhite());
+        assertEquals(Board.B, reader.getColor());
+        assertEquals(expected.length, reader.getMoveCount());
+        for (int i = 0; i < expected.length; i++)
+            assertEquals(expected[i], reader.getMove(i));
+    }
+}
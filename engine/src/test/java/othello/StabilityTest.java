@@ -0,0 +1,64 @@
+package othello;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class StabilityTest {
+
+    @Test
+    void stableDiscsAreNeverFlipped() {
+        Random random = new Random(23);
+        for (int i = 0; i < 300; i++) {
+            long[] position = RandomPositions.play(random, 20 + random.nextInt(44));
+            long player = position[0], opponent = position[1];
+            long playerStable = Stability.stable(player, opponent);
+            long opponentStable = Stability.stable(opponent, player);
+            assertEquals(playerStable, playerStable & player);
+            assertEquals(Long.bitCount(playerStable), Stability.count(player, opponent));
+
+            for (int game = 0; game < 10; game++) {
+                long p = player, o = opponent;
+                boolean playerToMove = true;
+                while (true) {
+                    long moves = BitBoard.moves(p, o);
+                    if (moves == 0) {
+                        if (BitBoard.moves(o, p) == 0)
+                            break;
+                    } else {
+                        int square = RandomPositions.randomMove(random, moves);
+                        long flipped = BitBoard.flips(square, p, o);
+                        p |= flipped | (1L << square);
+                        o &= ~flipped;
+                    }
+                    long swap = p;
+                    p = o;
+                    o = swap;
+                    playerToMove = !playerToMove;
+
+                    long playerDiscs = playerToMove ? p : o;
+                    long opponentDiscs = playerToMove ? o : p;
+                    assertEquals(playerStable, playerStable & playerDiscs, "player's stable disc flipped");
+                    assertEquals(opponentStable, opponentStable & opponentDiscs, "opponent's stable disc flipped");
+                }
+            }
+        }
+    }
+
+    @Test
+    void fullBoardIsStable() {
+        long player = 0x00FF00FF00FF00FFL;
+        assertEquals(player, Stability.stable(player, ~player));
+        assertEquals(64 - 32, Stability.count(~player, player));
+    }
+
+    @Test
+    void cornerIsStable() {
+        BitBoard start = new BitBoard();
+        long player = start.getBlack() | 1L;
+        assertTrue((Stability.stable(player, start.getWhite()) & 1L) != 0);
+        assertEquals(0, Stability.count(start.getBlack(), start.getWhite()));
+    }
+}
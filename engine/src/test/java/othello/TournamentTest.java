@@ -0,0 +1,28 @@
+package othello;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class TournamentTest {
+
+    // A depth 30 search would run for hours, the cancel stops it and the game ends without a result
+    @Test
+    void cancelStopsTheRunningGame() throws Exception {
+        Tournament.Engine deep = new Tournament.Engine("depth=30,hash=1");
+        Tournament.Cancellation cancellation = new Tournament.Cancellation();
+        BitBoard opening = Tournament.openings(1, 8, false, 1).get(0);
+        CompletableFuture<Tournament.Result> game = CompletableFuture.supplyAsync(
+                () -> Tournament.play(deep, deep, opening, Board.B, cancellation));
+
+        Thread.sleep(200);
+        assertFalse(game.isDone());
+        cancellation.cancel();
+        assertNull(game.get(10, TimeUnit.SECONDS));
+        assertTrue(cancellation.isCancelled());
+    }
+}
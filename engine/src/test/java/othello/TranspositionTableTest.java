@@ -0,0 +1,75 @@
+package othello;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class TranspositionTableTest {
+    // Keys of the same bucket, they differ in the bits above the bucket index
+    private static final long KEY = 0x1234L, SAME_BUCKET = KEY | 1L << 50, ALSO_SAME_BUCKET = KEY | 1L << 51;
+
+    @Test
+    void entryRoundTrip() {
+        TranspositionTable table = new TranspositionTable(1);
+        // depth, bound, score, move
+        int[][] entries = {
+                {1, TranspositionTable.EXACT, 0, 0},
+                {12, TranspositionTable.LOWER, -BitBoard.WIN_SCORE, 63},
+                {255, TranspositionTable.UPPER, 4321, BitBoard.NO_MOVE},
+                {7, TranspositionTable.EXACT, -1, 27}
+        };
+        for (int[] entry : entries) {
+            table.store(KEY, entry[0], entry[1], entry[2], entry[3]);
+            long data = table.probe(KEY);
+            assertEquals(entry[0], TranspositionTable.depth(data));
+            assertEquals(entry[1], TranspositionTable.bound(data));
+            assertEquals(entry[2], TranspositionTable.score(data));
+            assertEquals(entry[3], TranspositionTable.move(data));
+        }
+        assertEquals(0, table.probe(SAME_BUCKET));
+    }
+
+    // The deepest entry stays in the bucket, shallower ones share the always-replace slot
+    @Test
+    void deepEntriesAreKept() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(KEY, 10, TranspositionTable.EXACT, 1, 0);
+        table.store(SAME_BUCKET, 3, TranspositionTable.EXACT, 2, 0);
+        table.store(ALSO_SAME_BUCKET, 4, TranspositionTable.EXACT, 3, 0);
+        assertEquals(1, TranspositionTable.score(table.probe(KEY)));
+        assertEquals(0, table.probe(SAME_BUCKET));
+        assertEquals(3, TranspositionTable.score(table.probe(ALSO_SAME_BUCKET)));
+
+        // Entries of an earlier search give way
+        table.newSearch();
+        table.store(SAME_BUCKET, 1, TranspositionTable.EXACT, 4, 0);
+        assertEquals(0, table.probe(KEY));
+        assertEquals(4, TranspositionTable.score(table.probe(SAME_BUCKET)));
+    }
+
+    // Null-window searches that cut on the bounds stored by the earlier ones still fail on the right side
+    @Test
+    void searchesCutOnStoredBounds() {
+        Random random = new Random(53);
+        for (BitBoard position : Minimax.positions(random, 20, 12, 28)) {
+            int depth = 4;
+            int score = Minimax.search(new BitBoard(position), depth, Board.B);
+
+            PlayerAB player = new PlayerAB(depth, Board.B, true);
+            Searcher searcher = new Searcher(player, new TranspositionTable(1), Evaluator.DEFAULT, 0, true);
+            searcher.newSearch();
+            assertEquals(score, searcher.search(position, depth, Board.B, -Searcher.INFINITY, Searcher.INFINITY));
+            for (int bound = score - 60; bound <= score + 60; bound += 15) {
+                int result = searcher.search(position, depth, Board.B, bound, bound + 1);
+                if (score <= bound)
+                    assertTrue(result <= bound, result + " fails low at " + bound);
+                else
+                    assertTrue(result >= bound + 1, result + " fails high at " + bound);
+            }
+            assertTrue(searcher.tableHits > 0);
+            assertEquals(score, searcher.search(position, depth, Board.B, score - 1, score + 1));
+        }
+    }
+}